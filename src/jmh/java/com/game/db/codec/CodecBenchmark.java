@@ -0,0 +1,237 @@
+package com.game.db.codec;
+
+import com.game.model.Role;
+import com.game.model.User;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoleCodec / UserCodec 与原 Document 路径（DocumentCodec + 手工字段映射）的对比基准
+ * 解码输入为预先编码好的 BSON 字节，与驱动从网络读到的数据一致；Document 路径的映射逻辑照搬改造前的 RoleDao / UserDao
+ * <p>
+ * 运行: mvn -P jmh test-compile exec:exec -Djmh.args="CodecBenchmark -prof gc"
+ *
+ * @author Harleysama
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+
+    private final RoleCodec roleCodec = new RoleCodec();
+
+    private final UserCodec userCodec = new UserCodec();
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+
+    private final BasicOutputBuffer output = new BasicOutputBuffer(512);
+
+    private byte[] roleBytes;
+
+    private byte[] userBytes;
+
+    private Role role;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        role = new Role();
+        role.setId(1_000_001L);
+        role.setUserId(2_000_001L);
+        role.setName("勇者");
+        role.setLevel(35);
+        role.setProfession(2);
+        role.setExp(123_456L);
+        role.setGold(98_765L);
+        role.setLastLoginTime(System.currentTimeMillis());
+        role.setMapId(12);
+        role.setX(103.5f);
+        role.setY(0.25f);
+        role.setZ(-47.75f);
+        role.setRotation(1.57f);
+        role.clearChanges();
+
+        user = new User();
+        user.setId(2_000_001L);
+        user.setUsername("player_0001");
+        user.setPassword("5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8");
+        user.setCreateTime(System.currentTimeMillis());
+        user.setLastLoginTime(System.currentTimeMillis());
+
+        roleBytes = encodeRoleCodec();
+        userBytes = encodeUserCodec();
+    }
+
+    @Benchmark
+    public Role decodeRoleCodec() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(roleBytes))) {
+            return roleCodec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    @Benchmark
+    public Role decodeRoleDocument() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(roleBytes))) {
+            return documentToRole(documentCodec.decode(reader, DECODER_CONTEXT));
+        }
+    }
+
+    @Benchmark
+    public User decodeUserCodec() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(userBytes))) {
+            return userCodec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    @Benchmark
+    public User decodeUserDocument() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(userBytes))) {
+            return documentToUser(documentCodec.decode(reader, DECODER_CONTEXT));
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeRoleCodec() {
+        output.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            roleCodec.encode(writer, role, ENCODER_CONTEXT);
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeRoleDocument() {
+        output.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            documentCodec.encode(writer, roleToDocument(role), ENCODER_CONTEXT);
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeUserCodec() {
+        output.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            userCodec.encode(writer, user, ENCODER_CONTEXT);
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeUserDocument() {
+        output.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            documentCodec.encode(writer, userToDocument(user), ENCODER_CONTEXT);
+        }
+        return output.toByteArray();
+    }
+
+    // ========== 原 Document 路径 ==========
+
+    private static Role documentToRole(Document doc) {
+        Role role = new Role();
+        role.setId(doc.getLong("_id"));
+        role.setUserId(doc.getLong("user_id"));
+        role.setName(doc.getString("name"));
+        role.setLevel(doc.getInteger("level"));
+        role.setProfession(doc.getInteger("profession"));
+        role.setExp(doc.getLong("exp"));
+        role.setGold(doc.getLong("gold"));
+        role.setDiamond(doc.getLong("diamond"));
+        role.setHp(doc.getInteger("hp"));
+        role.setMaxHp(doc.getInteger("max_hp"));
+        role.setMp(doc.getInteger("mp"));
+        role.setMaxMp(doc.getInteger("max_mp"));
+        role.setAttack(doc.getInteger("attack"));
+        role.setDefense(doc.getInteger("defense"));
+        role.setSpeed(doc.getInteger("speed"));
+        role.setLastLoginTime(doc.getLong("last_login_time"));
+        if (doc.containsKey("map_id")) {
+            role.setMapId(doc.getInteger("map_id"));
+        }
+        role.setX(getFloat(doc, "x", role.getX()));
+        role.setY(getFloat(doc, "y", role.getY()));
+        role.setZ(getFloat(doc, "z", role.getZ()));
+        role.setRotation(getFloat(doc, "rotation", role.getRotation()));
+        role.clearChanges();
+        return role;
+    }
+
+    private static Document roleToDocument(Role role) {
+        Document doc = new Document();
+        doc.append("_id", role.getId());
+        doc.append("user_id", role.getUserId());
+        doc.append("name", role.getName());
+        doc.append("level", role.getLevel());
+        doc.append("profession", role.getProfession());
+        doc.append("exp", role.getExp());
+        doc.append("gold", role.getGold());
+        doc.append("diamond", role.getDiamond());
+        doc.append("hp", role.getHp());
+        doc.append("max_hp", role.getMaxHp());
+        doc.append("mp", role.getMp());
+        doc.append("max_mp", role.getMaxMp());
+        doc.append("attack", role.getAttack());
+        doc.append("defense", role.getDefense());
+        doc.append("speed", role.getSpeed());
+        doc.append("last_login_time", role.getLastLoginTime());
+        doc.append("map_id", role.getMapId());
+        doc.append("x", role.getX());
+        doc.append("y", role.getY());
+        doc.append("z", role.getZ());
+        doc.append("rotation", role.getRotation());
+        return doc;
+    }
+
+    private static User documentToUser(Document doc) {
+        User user = new User();
+        user.setId(doc.getLong("_id"));
+        user.setUsername(doc.getString("username"));
+        user.setPassword(doc.getString("password"));
+        user.setCreateTime(doc.getLong("create_time"));
+        user.setLastLoginTime(doc.getLong("last_login_time"));
+        return user;
+    }
+
+    private static Document userToDocument(User user) {
+        Document doc = new Document();
+        doc.append("_id", user.getId());
+        doc.append("username", user.getUsername());
+        doc.append("password", user.getPassword());
+        doc.append("create_time", user.getCreateTime());
+        doc.append("last_login_time", user.getLastLoginTime());
+        return doc;
+    }
+
+    private static Float getFloat(Document doc, String key, Float defaultValue) {
+        Object value = doc.get(key);
+        return value instanceof Number number ? number.floatValue() : defaultValue;
+    }
+}
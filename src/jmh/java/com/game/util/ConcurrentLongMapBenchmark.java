@@ -0,0 +1,161 @@
+package com.game.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConcurrentLongMap 与 ConcurrentHashMap&lt;Long, V&gt; 的对比基准
+ * 键为随机分布的 64 位 ID（模拟用户/角色 ID），查询键预先生成，查询时 ConcurrentHashMap 需要装箱
+ * <p>
+ * 运行: mvn -P jmh test-compile exec:exec -Djmh.args="ConcurrentLongMapBenchmark -prof gc"
+ *
+ * @author Harleysama
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentLongMapBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private long[] presentKeys;
+
+    private long[] absentKeys;
+
+    private ConcurrentLongMap<Object> longMap;
+
+    private Map<Long, Object> hashMap;
+
+    private final Object value = new Object();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        presentKeys = new long[size];
+        absentKeys = new long[size];
+        longMap = new ConcurrentLongMap<>(size, 16);
+        hashMap = new ConcurrentHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            long key = random.nextLong() | 1;
+            presentKeys[i] = key;
+            // 常驻键为奇数，未命中键为偶数
+            absentKeys[i] = random.nextLong() & ~1L;
+            longMap.put(key, value);
+            hashMap.put(key, value);
+        }
+    }
+
+    /**
+     * 每个线程独立的键游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        private long churnKey;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // 偶数键，与常驻的奇数键不冲突
+            churnKey = Thread.currentThread().threadId() << 40;
+        }
+
+        int next(int bound) {
+            int i = index;
+            index = i + 1 == bound ? 0 : i + 1;
+            return i;
+        }
+
+        long nextChurnKey() {
+            churnKey += 2;
+            return churnKey;
+        }
+    }
+
+    @Benchmark
+    public Object getHitLongMap(Cursor cursor) {
+        return longMap.get(presentKeys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    public Object getHitConcurrentHashMap(Cursor cursor) {
+        return hashMap.get(presentKeys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    public Object getMissLongMap(Cursor cursor) {
+        return longMap.get(absentKeys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    public Object getMissConcurrentHashMap(Cursor cursor) {
+        return hashMap.get(absentKeys[cursor.next(size)]);
+    }
+
+    /**
+     * 上下线场景：不断写入新键再删除，考察墓碑回收
+     */
+    @Benchmark
+    public Object putRemoveLongMap(Cursor cursor) {
+        long key = cursor.nextChurnKey();
+        longMap.put(key, value);
+        return longMap.remove(key);
+    }
+
+    @Benchmark
+    public Object putRemoveConcurrentHashMap(Cursor cursor) {
+        long key = cursor.nextChurnKey();
+        hashMap.put(key, value);
+        return hashMap.remove(key);
+    }
+
+    @Benchmark
+    @Group("mixedLongMap")
+    @GroupThreads(3)
+    public Object mixedLongMapGet(Cursor cursor) {
+        return longMap.get(presentKeys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    @Group("mixedLongMap")
+    @GroupThreads(1)
+    public Object mixedLongMapChurn(Cursor cursor) {
+        return putRemoveLongMap(cursor);
+    }
+
+    @Benchmark
+    @Group("mixedConcurrentHashMap")
+    @GroupThreads(3)
+    public Object mixedConcurrentHashMapGet(Cursor cursor) {
+        return hashMap.get(presentKeys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    @Group("mixedConcurrentHashMap")
+    @GroupThreads(1)
+    public Object mixedConcurrentHashMapChurn(Cursor cursor) {
+        return putRemoveConcurrentHashMap(cursor);
+    }
+}
@@ -2,8 +2,11 @@ package com.game;
 
 import com.game.config.ServerConfig;
 import com.game.db.MongoManager;
+import com.game.db.RoleCache;
+import com.game.db.RoleDao;
 import com.game.handler.MessageHandlerManager;
 import com.game.net.NettyServer;
+import com.game.net.SessionManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -19,6 +22,11 @@ public class GameServer {
      */
     private static final String HANDLER_PACKAGE = "com.game.handler";
 
+    /**
+     * 网络服务器（关服钩子中先于角色缓存关闭）
+     */
+    private static volatile NettyServer server;
+
     public static void main(String[] args) {
         log.info("========================================");
         log.info("  游戏服务器启动中...");
@@ -34,12 +42,18 @@ public class GameServer {
 
             // 初始化 MongoDB
             MongoManager.init(config.getMongoConnectionString(), config.getDatabaseName());
+            MongoManager.getInstance().ensureIndexes(config.isMongoIndexAutoCreate(), config.isMongoIndexFailOnMissing());
 
-            // 注册消息处理器（扫描方式）
+            // 初始化角色缓存，关服时写回所有未保存的修改
+            RoleCache.init(new RoleDao(), config.getRoleCacheFlushIntervalMillis(), config.getRoleCacheFlushBatchSize());
+            SessionManager.setRoleCache(RoleCache.getInstance());
+            Runtime.getRuntime().addShutdownHook(new Thread(GameServer::onShutdown, "game-shutdown"));
+
+            // 注册消息处理器
             registerHandlers();
 
             // 启动 Netty 服务器
-            NettyServer server = new NettyServer(config);
+            server = new NettyServer(config);
             server.start();
 
         } catch (Exception e) {
@@ -48,15 +62,35 @@ public class GameServer {
         }
     }
 
+    /**
+     * JVM 退出时先停止网络服务（不再接收会修改角色的消息），再写回角色缓存并关闭数据库连接
+     */
+    private static void onShutdown() {
+        NettyServer nettyServer = server;
+        if (nettyServer != null) {
+            nettyServer.shutdown();
+        }
+        RoleCache roleCache = RoleCache.getInstanceIfPresent();
+        if (roleCache != null) {
+            roleCache.shutdown();
+        }
+        MongoManager mongoManager = MongoManager.getInstanceIfPresent();
+        if (mongoManager != null) {
+            mongoManager.close();
+        }
+    }
+
     /**
      * 注册所有消息处理器
-     * 使用注解扫描方式自动注册
+     * 优先使用编译期生成的注册表，未生成时（如 IDE 未启用注解处理）回退到注解扫描
      */
     private static void registerHandlers() {
         MessageHandlerManager manager = MessageHandlerManager.getInstance();
 
-        // 自动扫描并注册所有带 @GameHandler 注解的处理器
-        manager.scanAndRegister(HANDLER_PACKAGE);
+        if (!manager.registerFromRegistry()) {
+            // 自动扫描并注册所有带 @GameHandler 注解的处理器
+            manager.scanAndRegister(HANDLER_PACKAGE);
+        }
 
         log.info("消息处理器注册完成! 共 {} 个", manager.getHandlerCount());
     }
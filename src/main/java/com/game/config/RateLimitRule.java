@@ -0,0 +1,31 @@
+package com.game.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 消息限流规则（令牌桶）
+ *
+ * @author Harleysama
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitRule {
+
+    /**
+     * 消息类型
+     */
+    private int messageType;
+
+    /**
+     * 桶容量（允许的突发消息数）
+     */
+    private int capacity;
+
+    /**
+     * 每秒补充的令牌数
+     */
+    private double refillPerSecond;
+}
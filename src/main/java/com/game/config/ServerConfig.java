@@ -1,11 +1,16 @@
 package com.game.config;
 
+import com.game.handler.ExecutionMode;
+import com.game.protocol.generated.CommonProto;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 服务器配置
@@ -26,11 +31,176 @@ public class ServerConfig {
      */
     private int workerThreads = Runtime.getRuntime().availableProcessors() * 2;
 
+    /**
+     * 业务线程数 (执行阻塞型处理器，默认: CPU核心数 * 4)
+     */
+    private int businessThreads = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * 业务处理器执行模式 (inline / platform / virtual)
+     */
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+    /**
+     * 虚拟线程模式下同时执行的业务任务上限（同时也是存活虚拟线程数上限）
+     */
+    private int virtualMaxInFlight = 1024;
+
+    /**
+     * 每个连接的会话邮箱容量，超出的业务消息直接拒绝；同时限制每个连接未执行完的无序请求数
+     */
+    private int mailboxCapacity = 1024;
+
     /**
      * 心跳超时时间(秒)
      */
     private int heartbeatTimeout = 60;
 
+    /**
+     * 空闲回收时间轮刻度(毫秒)，即超时判定的精度
+     */
+    private long idleTickMillis = 1000;
+
+    /**
+     * 空闲回收每个分片每个刻度最多关闭的连接数
+     */
+    private int idleCloseBatchSize = 512;
+
+    /**
+     * 是否启用零拷贝解码（数据包直接持有入站缓冲区切片）
+     */
+    private boolean zeroCopyDecode = true;
+
+    /**
+     * 是否优先使用 epoll 原生传输（不可用时自动回退 NIO）
+     */
+    private boolean epollEnabled = true;
+
+    /**
+     * 是否启用 SO_REUSEPORT（仅 epoll）
+     */
+    private boolean epollReusePort = false;
+
+    /**
+     * 接入通道数 (启用 SO_REUSEPORT 时绑定多个监听通道，仅 epoll)
+     */
+    private int epollAcceptorThreads = 1;
+
+    /**
+     * 是否启用 TCP_QUICKACK（仅 epoll）
+     */
+    private boolean epollTcpQuickAck = false;
+
+    /**
+     * 是否使用边缘触发模式（仅 epoll，false 为水平触发）
+     */
+    private boolean epollEdgeTriggered = true;
+
+    /**
+     * 写缓冲低水位(字节)，低于该值连接恢复可写
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * 写缓冲高水位(字节)，超过该值连接变为不可写，消息进入出站队列
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * 是否合并 flush（同一次读事件或同一轮事件循环内的写出合并为一次系统调用）
+     */
+    private boolean flushConsolidationEnabled = true;
+
+    /**
+     * 连续多少次 flush 后强制真正写出，用于限制合并带来的延迟
+     */
+    private int explicitFlushAfterFlushes = 256;
+
+    /**
+     * 是否允许与客户端协商帧压缩
+     */
+    private boolean compressionEnabled = false;
+
+    /**
+     * 数据体达到该字节数时才压缩
+     */
+    private int compressionThreshold = 512;
+
+    /**
+     * 是否允许与客户端协商紧凑(varint)帧头
+     */
+    private boolean varintHeaderEnabled = false;
+
+    /**
+     * 是否允许向客户端下发批量帧（BATCH）
+     */
+    private boolean batchFramesEnabled = false;
+
+    /**
+     * 会话出站队列容量
+     */
+    private int outboundQueueCapacity = 256;
+
+    /**
+     * 出站队列满时可丢弃的消息类型
+     */
+    private List<Integer> outboundDroppableTypes = new ArrayList<>();
+
+    /**
+     * 出站队列持续溢出多久后断开连接(秒)
+     */
+    private int outboundOverflowDisconnectSeconds = 10;
+
+    /**
+     * 是否启用消息限流
+     */
+    private boolean rateLimitEnabled = false;
+
+    /**
+     * 超限时是否静默丢弃（false 时返回 RATE_LIMIT 错误）
+     */
+    private boolean rateLimitSilentDrop = false;
+
+    /**
+     * 按消息类型配置的限流规则
+     */
+    private List<RateLimitRule> rateLimitRules = new ArrayList<>();
+
+    /**
+     * 是否启用消息分发指标（运行时可通过 DispatchMetrics.setEnabled 切换）
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * 分发指标日志输出间隔(秒)，0 表示不输出
+     */
+    private int metricsReportIntervalSeconds = 60;
+
+    /**
+     * 是否启用监控 HTTP 服务
+     */
+    private boolean adminEnabled = false;
+
+    /**
+     * 监控 HTTP 服务绑定地址
+     */
+    private String adminHost = "127.0.0.1";
+
+    /**
+     * 监控 HTTP 服务端口
+     */
+    private int adminPort = 9090;
+
+    /**
+     * 角色缓存写回间隔(毫秒)
+     */
+    private long roleCacheFlushIntervalMillis = 1000;
+
+    /**
+     * 角色缓存每次 bulkWrite 的最大角色数
+     */
+    private int roleCacheFlushBatchSize = 500;
+
     /**
      * MongoDB 连接字符串
      */
@@ -41,6 +211,16 @@ public class ServerConfig {
      */
     private String databaseName = "game_db";
 
+    /**
+     * 启动时是否自动创建缺失的索引
+     */
+    private boolean mongoIndexAutoCreate = true;
+
+    /**
+     * 启动时存在缺失或不一致的索引是否终止启动（生产环境关闭自动创建时建议开启）
+     */
+    private boolean mongoIndexFailOnMissing = false;
+
     /**
      * 从环境变量加载配置
      */
@@ -97,10 +277,194 @@ public class ServerConfig {
                 if (workerThreads != null) {
                     config.setWorkerThreads(((Number) workerThreads).intValue());
                 }
+                Object businessThreads = serverConfig.get("business-threads");
+                if (businessThreads != null) {
+                    config.setBusinessThreads(((Number) businessThreads).intValue());
+                }
+                Object executionMode = serverConfig.get("execution-mode");
+                if (executionMode != null) {
+                    config.setExecutionMode(ExecutionMode.valueOf(((String) executionMode).toUpperCase()));
+                }
+                Object virtualMaxInFlight = serverConfig.get("virtual-max-in-flight");
+                if (virtualMaxInFlight != null) {
+                    config.setVirtualMaxInFlight(((Number) virtualMaxInFlight).intValue());
+                }
+                Object mailboxCapacity = serverConfig.get("mailbox-capacity");
+                if (mailboxCapacity != null) {
+                    config.setMailboxCapacity(((Number) mailboxCapacity).intValue());
+                }
                 Object heartbeatTimeout = serverConfig.get("heartbeat-timeout");
                 if (heartbeatTimeout != null) {
                     config.setHeartbeatTimeout(((Number) heartbeatTimeout).intValue());
                 }
+
+                // 解析空闲回收配置
+                Map<String, Object> idleConfig = (Map<String, Object>) serverConfig.get("idle-reaper");
+                if (idleConfig != null) {
+                    Object tickMillis = idleConfig.get("tick-millis");
+                    if (tickMillis != null) {
+                        config.setIdleTickMillis(((Number) tickMillis).longValue());
+                    }
+                    Object closeBatchSize = idleConfig.get("close-batch-size");
+                    if (closeBatchSize != null) {
+                        config.setIdleCloseBatchSize(((Number) closeBatchSize).intValue());
+                    }
+                }
+                Object zeroCopyDecode = serverConfig.get("zero-copy-decode");
+                if (zeroCopyDecode != null) {
+                    config.setZeroCopyDecode((Boolean) zeroCopyDecode);
+                }
+
+                Object lowWaterMark = serverConfig.get("write-buffer-low-water-mark");
+                if (lowWaterMark != null) {
+                    config.setWriteBufferLowWaterMark(((Number) lowWaterMark).intValue());
+                }
+                Object highWaterMark = serverConfig.get("write-buffer-high-water-mark");
+                if (highWaterMark != null) {
+                    config.setWriteBufferHighWaterMark(((Number) highWaterMark).intValue());
+                }
+
+                // 解析 flush 合并配置
+                Map<String, Object> flushConfig = (Map<String, Object>) serverConfig.get("flush-consolidation");
+                if (flushConfig != null) {
+                    Object enabled = flushConfig.get("enabled");
+                    if (enabled != null) {
+                        config.setFlushConsolidationEnabled((Boolean) enabled);
+                    }
+                    Object explicitFlushAfterFlushes = flushConfig.get("explicit-flush-after-flushes");
+                    if (explicitFlushAfterFlushes != null) {
+                        config.setExplicitFlushAfterFlushes(((Number) explicitFlushAfterFlushes).intValue());
+                    }
+                }
+
+                // 解析帧压缩配置
+                Map<String, Object> compressionConfig = (Map<String, Object>) serverConfig.get("compression");
+                if (compressionConfig != null) {
+                    Object enabled = compressionConfig.get("enabled");
+                    if (enabled != null) {
+                        config.setCompressionEnabled((Boolean) enabled);
+                    }
+                    Object threshold = compressionConfig.get("threshold");
+                    if (threshold != null) {
+                        config.setCompressionThreshold(((Number) threshold).intValue());
+                    }
+                }
+
+                Object varintHeader = serverConfig.get("varint-header");
+                if (varintHeader != null) {
+                    config.setVarintHeaderEnabled((Boolean) varintHeader);
+                }
+                Object batchFrames = serverConfig.get("batch-frames");
+                if (batchFrames != null) {
+                    config.setBatchFramesEnabled((Boolean) batchFrames);
+                }
+
+                // 解析出站队列配置
+                Map<String, Object> outboundConfig = (Map<String, Object>) serverConfig.get("outbound-queue");
+                if (outboundConfig != null) {
+                    Object capacity = outboundConfig.get("capacity");
+                    if (capacity != null) {
+                        config.setOutboundQueueCapacity(((Number) capacity).intValue());
+                    }
+                    List<String> droppableTypes = (List<String>) outboundConfig.get("droppable-types");
+                    if (droppableTypes != null) {
+                        for (String type : droppableTypes) {
+                            config.getOutboundDroppableTypes().add(CommonProto.MessageType.valueOf(type).getNumber());
+                        }
+                    }
+                    Object overflowDisconnect = outboundConfig.get("overflow-disconnect-seconds");
+                    if (overflowDisconnect != null) {
+                        config.setOutboundOverflowDisconnectSeconds(((Number) overflowDisconnect).intValue());
+                    }
+                }
+
+                // 解析 epoll 原生传输配置
+                Map<String, Object> epollConfig = (Map<String, Object>) serverConfig.get("epoll");
+                if (epollConfig != null) {
+                    Object enabled = epollConfig.get("enabled");
+                    if (enabled != null) {
+                        config.setEpollEnabled((Boolean) enabled);
+                    }
+                    Object reusePort = epollConfig.get("reuse-port");
+                    if (reusePort != null) {
+                        config.setEpollReusePort((Boolean) reusePort);
+                    }
+                    Object acceptorThreads = epollConfig.get("acceptor-threads");
+                    if (acceptorThreads != null) {
+                        config.setEpollAcceptorThreads(((Number) acceptorThreads).intValue());
+                    }
+                    Object tcpQuickAck = epollConfig.get("tcp-quickack");
+                    if (tcpQuickAck != null) {
+                        config.setEpollTcpQuickAck((Boolean) tcpQuickAck);
+                    }
+                    Object edgeTriggered = epollConfig.get("edge-triggered");
+                    if (edgeTriggered != null) {
+                        config.setEpollEdgeTriggered((Boolean) edgeTriggered);
+                    }
+                }
+            }
+
+            // 解析 rate-limit 配置
+            Map<String, Object> rateLimitConfig = (Map<String, Object>) data.get("rate-limit");
+            if (rateLimitConfig != null) {
+                Object enabled = rateLimitConfig.get("enabled");
+                if (enabled != null) {
+                    config.setRateLimitEnabled((Boolean) enabled);
+                }
+                Object action = rateLimitConfig.get("action");
+                if (action != null) {
+                    config.setRateLimitSilentDrop("drop".equalsIgnoreCase((String) action));
+                }
+                Map<String, Object> rules = (Map<String, Object>) rateLimitConfig.get("rules");
+                if (rules != null) {
+                    for (Map.Entry<String, Object> entry : rules.entrySet()) {
+                        config.getRateLimitRules().add(parseRateLimitRule(
+                                entry.getKey(), (Map<String, Object>) entry.getValue()));
+                    }
+                }
+            }
+
+            // 解析 metrics 配置
+            Map<String, Object> metricsConfig = (Map<String, Object>) data.get("metrics");
+            if (metricsConfig != null) {
+                Object enabled = metricsConfig.get("enabled");
+                if (enabled != null) {
+                    config.setMetricsEnabled((Boolean) enabled);
+                }
+                Object reportInterval = metricsConfig.get("report-interval-seconds");
+                if (reportInterval != null) {
+                    config.setMetricsReportIntervalSeconds(((Number) reportInterval).intValue());
+                }
+            }
+
+            // 解析 admin 配置
+            Map<String, Object> adminConfig = (Map<String, Object>) data.get("admin");
+            if (adminConfig != null) {
+                Object enabled = adminConfig.get("enabled");
+                if (enabled != null) {
+                    config.setAdminEnabled((Boolean) enabled);
+                }
+                Object host = adminConfig.get("host");
+                if (host != null) {
+                    config.setAdminHost((String) host);
+                }
+                Object port = adminConfig.get("port");
+                if (port != null) {
+                    config.setAdminPort(((Number) port).intValue());
+                }
+            }
+
+            // 解析 role-cache 配置
+            Map<String, Object> roleCacheConfig = (Map<String, Object>) data.get("role-cache");
+            if (roleCacheConfig != null) {
+                Object flushInterval = roleCacheConfig.get("flush-interval-millis");
+                if (flushInterval != null) {
+                    config.setRoleCacheFlushIntervalMillis(((Number) flushInterval).longValue());
+                }
+                Object flushBatchSize = roleCacheConfig.get("flush-batch-size");
+                if (flushBatchSize != null) {
+                    config.setRoleCacheFlushBatchSize(((Number) flushBatchSize).intValue());
+                }
             }
 
             // 解析 mongodb 配置
@@ -114,10 +478,24 @@ public class ServerConfig {
                 if (database != null) {
                     config.setDatabaseName((String) database);
                 }
+                Map<String, Object> indexConfig = (Map<String, Object>) mongoConfig.get("indexes");
+                if (indexConfig != null) {
+                    Object autoCreate = indexConfig.get("auto-create");
+                    if (autoCreate != null) {
+                        config.setMongoIndexAutoCreate((Boolean) autoCreate);
+                    }
+                    Object failOnMissing = indexConfig.get("fail-on-missing");
+                    if (failOnMissing != null) {
+                        config.setMongoIndexFailOnMissing((Boolean) failOnMissing);
+                    }
+                }
             }
 
             log.info("YAML 配置文件加载成功");
 
+        } catch (IllegalStateException e) {
+            // 配置值非法时拒绝启动，不回退默认配置
+            throw e;
         } catch (Exception e) {
             log.warn("加载 application.yml 失败，使用默认配置: {}", e.getMessage());
         }
@@ -126,6 +504,36 @@ public class ServerConfig {
         return applyEnvOverrides(config);
     }
 
+    /**
+     * 解析并校验一条限流规则
+     *
+     * @throws IllegalStateException 消息类型未知、缺少参数或参数超出范围
+     */
+    private static RateLimitRule parseRateLimitRule(String typeName, Map<String, Object> rule) {
+        CommonProto.MessageType messageType;
+        try {
+            messageType = CommonProto.MessageType.valueOf(typeName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("rate-limit.rules: 未知的消息类型 " + typeName);
+        }
+        Object capacity = rule == null ? null : rule.get("capacity");
+        Object refillPerSecond = rule == null ? null : rule.get("refill-per-second");
+        if (!(capacity instanceof Number) || !(refillPerSecond instanceof Number)) {
+            throw new IllegalStateException("rate-limit.rules." + typeName + ": 必须配置 capacity 和 refill-per-second");
+        }
+        int capacityValue = ((Number) capacity).intValue();
+        double refillValue = ((Number) refillPerSecond).doubleValue();
+        if (capacityValue < 1) {
+            throw new IllegalStateException("rate-limit.rules." + typeName + ".capacity 必须 >= 1: " + capacity);
+        }
+        // 补充间隔按纳秒取整，速率过高时间隔为 0 等同于不限流
+        if (!(refillValue > 0) || TimeUnit.SECONDS.toNanos(1) / refillValue < 1) {
+            throw new IllegalStateException("rate-limit.rules." + typeName
+                    + ".refill-per-second 必须 > 0 且不超过 1e9: " + refillPerSecond);
+        }
+        return new RateLimitRule(messageType.getNumber(), capacityValue, refillValue);
+    }
+
     /**
      * 应用环境变量覆盖（环境变量优先级最高）
      */
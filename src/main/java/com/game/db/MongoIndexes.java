@@ -0,0 +1,165 @@
+package com.game.db;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MongoDB 索引声明与启动时校验
+ * 按声明逐个比对集合上的现有索引（按键和 unique 比较，不比较名称）：
+ * 缺失的索引按配置自动创建，已存在但定义不一致的只报告、不修改
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public final class MongoIndexes {
+
+    /**
+     * 必需的索引
+     */
+    private static final List<IndexSpec> REQUIRED = List.of(
+            new IndexSpec("users", new Document("username", 1), true, "username_unique"),
+            new IndexSpec("roles", new Document("user_id", 1), false, "user_id_1"),
+            new IndexSpec("roles", new Document("name", 1), false, "name_1")
+    );
+
+    private MongoIndexes() {
+    }
+
+    /**
+     * 校验并创建索引，重复执行不会产生变化
+     *
+     * @param autoCreate    是否自动创建缺失的索引
+     * @param failOnMissing 仍有缺失或不一致的索引时是否抛出异常终止启动
+     * @throws IllegalStateException failOnMissing 为 true 且存在缺失或不一致的索引
+     */
+    public static void ensure(MongoDatabase database, boolean autoCreate, boolean failOnMissing) {
+        List<String> problems = new ArrayList<>();
+        int created = 0;
+
+        try {
+            for (IndexSpec spec : REQUIRED) {
+                MongoCollection<Document> collection = database.getCollection(spec.getCollection());
+                Document existing = findByKey(collection, spec.getKeys());
+
+                if (existing != null) {
+                    boolean unique = Boolean.TRUE.equals(existing.get("unique"));
+                    if (unique != spec.isUnique()) {
+                        problems.add(spec.describe() + " 不一致: 现有索引 " + existing.get("name")
+                                + " unique=" + unique);
+                    }
+                    continue;
+                }
+
+                if (!autoCreate) {
+                    problems.add(spec.describe() + " 缺失");
+                    continue;
+                }
+                try {
+                    collection.createIndex(spec.getKeys(),
+                            new IndexOptions().name(spec.getName()).unique(spec.isUnique()));
+                    created++;
+                    log.info("创建索引: {}", spec.describe());
+                } catch (MongoCommandException e) {
+                    // 同名索引定义不同、已有数据违反唯一约束等
+                    problems.add(spec.describe() + " 创建失败: " + e.getMessage());
+                }
+            }
+        } catch (MongoException e) {
+            // 连接失败等，剩余索引无法检查
+            problems.add("索引检查中断: " + e.getMessage());
+        }
+
+        if (problems.isEmpty()) {
+            log.info("索引检查完成: 共 {} 个, 新建 {} 个", REQUIRED.size(), created);
+            return;
+        }
+        for (String problem : problems) {
+            log.warn("索引问题: {}", problem);
+        }
+        if (failOnMissing) {
+            throw new IllegalStateException("存在 " + problems.size() + " 个缺失或不一致的索引: " + problems);
+        }
+    }
+
+    /**
+     * 按键（字段顺序和方向）查找现有索引
+     */
+    private static Document findByKey(MongoCollection<Document> collection, Document keys) {
+        for (Document index : collection.listIndexes()) {
+            Document indexKeys = index.get("key", Document.class);
+            if (indexKeys != null && sameKeys(indexKeys, keys)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 比较索引键，方向值可能是 int32 / int64 / double，按数值比较
+     */
+    private static boolean sameKeys(Document actual, Document expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        List<String> actualFields = new ArrayList<>(actual.keySet());
+        List<String> expectedFields = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < expectedFields.size(); i++) {
+            String field = expectedFields.get(i);
+            if (!field.equals(actualFields.get(i))) {
+                return false;
+            }
+            Object actualValue = actual.get(field);
+            Object expectedValue = expected.get(field);
+            if (actualValue instanceof Number a && expectedValue instanceof Number e) {
+                if (a.doubleValue() != e.doubleValue()) {
+                    return false;
+                }
+            } else if (!expectedValue.equals(actualValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 索引声明
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class IndexSpec {
+
+        /**
+         * 集合名
+         */
+        private final String collection;
+
+        /**
+         * 索引键
+         */
+        private final Document keys;
+
+        /**
+         * 是否唯一
+         */
+        private final boolean unique;
+
+        /**
+         * 创建时使用的索引名
+         */
+        private final String name;
+
+        private String describe() {
+            return collection + keys.toJson() + (unique ? " (unique)" : "");
+        }
+    }
+}
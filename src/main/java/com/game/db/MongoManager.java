@@ -1,31 +1,58 @@
 package com.game.db;
 
+import com.game.db.codec.RoleCodec;
+import com.game.db.codec.UserCodec;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 /**
  * MongoDB 管理器
  * 管理 MongoDB 连接和数据库访问
+ * <p>
+ * 同时持有同步客户端和异步（Reactive Streams）客户端，两者各自维护连接池，使用相同的编解码器
  *
  * @author Harleysama
  */
 @Slf4j
 public class MongoManager {
 
-    private static MongoManager INSTANCE;
+    private static volatile MongoManager INSTANCE;
 
     private final MongoClient mongoClient;
     private final MongoDatabase database;
+    private final MongoPoolStats poolStats = new MongoPoolStats();
+    private final com.mongodb.reactivestreams.client.MongoClient asyncClient;
+    private final com.mongodb.reactivestreams.client.MongoDatabase asyncDatabase;
+    private final MongoPoolStats asyncPoolStats = new MongoPoolStats();
 
     private MongoManager(String connectionString, String databaseName) {
         log.info("正在连接 MongoDB: database={}", databaseName);
-        this.mongoClient = MongoClients.create(connectionString);
-        this.database = mongoClient.getDatabase(databaseName);
+        ConnectionString connection = new ConnectionString(connectionString);
+        this.mongoClient = MongoClients.create(clientSettings(connection, poolStats));
+        this.asyncClient = com.mongodb.reactivestreams.client.MongoClients.create(
+                clientSettings(connection, asyncPoolStats));
+        // 实体编解码器优先，其余类型沿用驱动默认编解码器
+        CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new RoleCodec(), new UserCodec()),
+                MongoClientSettings.getDefaultCodecRegistry());
+        this.database = mongoClient.getDatabase(databaseName).withCodecRegistry(codecRegistry);
+        this.asyncDatabase = asyncClient.getDatabase(databaseName).withCodecRegistry(codecRegistry);
         log.info("MongoDB 连接成功! (*￣︶￣)");
     }
 
+    private static MongoClientSettings clientSettings(ConnectionString connection, MongoPoolStats stats) {
+        return MongoClientSettings.builder()
+                .applyConnectionString(connection)
+                .applyToConnectionPoolSettings(builder -> builder.addConnectionPoolListener(stats))
+                .build();
+    }
+
     /**
      * 初始化 MongoDB 管理器
      */
@@ -45,6 +72,13 @@ public class MongoManager {
         return INSTANCE;
     }
 
+    /**
+     * 校验并按需创建必需的索引（见 {@link MongoIndexes}）
+     */
+    public void ensureIndexes(boolean autoCreate, boolean failOnMissing) {
+        MongoIndexes.ensure(database, autoCreate, failOnMissing);
+    }
+
     /**
      * 获取数据库
      */
@@ -52,6 +86,13 @@ public class MongoManager {
         return database;
     }
 
+    /**
+     * 获取异步数据库
+     */
+    public com.mongodb.reactivestreams.client.MongoDatabase getAsyncDatabase() {
+        return asyncDatabase;
+    }
+
     /**
      * 获取 Mongo 客户端
      */
@@ -59,13 +100,37 @@ public class MongoManager {
         return mongoClient;
     }
 
+    /**
+     * 获取连接池统计
+     */
+    public MongoPoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    /**
+     * 获取异步客户端的连接池统计
+     */
+    public MongoPoolStats getAsyncPoolStats() {
+        return asyncPoolStats;
+    }
+
+    /**
+     * 初始化后返回实例，未初始化时返回 null
+     */
+    public static MongoManager getInstanceIfPresent() {
+        return INSTANCE;
+    }
+
     /**
      * 关闭连接
      */
     public void close() {
         if (mongoClient != null) {
             mongoClient.close();
-            log.info("MongoDB 连接已关闭");
         }
+        if (asyncClient != null) {
+            asyncClient.close();
+        }
+        log.info("MongoDB 连接已关闭");
     }
 }
@@ -0,0 +1,123 @@
+package com.game.db;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MongoDB 连接池统计
+ * 通过连接池事件监听器按服务器地址累计连接数、借出数和等待数
+ *
+ * @author Harleysama
+ */
+public class MongoPoolStats implements ConnectionPoolListener {
+
+    /**
+     * 服务器地址 -> 连接池统计
+     */
+    private final Map<ServerAddress, Pool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 所有连接池的统计
+     */
+    public Collection<Pool> getPools() {
+        return pools.values();
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        pool(event.getServerId().getAddress()).maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        pools.remove(event.getServerId().getAddress());
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        pool(event.getConnectionId().getServerId().getAddress()).open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        pool(event.getConnectionId().getServerId().getAddress()).open.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        pool(event.getServerId().getAddress()).waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        Pool pool = pool(event.getConnectionId().getServerId().getAddress());
+        pool.waiting.decrementAndGet();
+        pool.checkedOut.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Pool pool = pool(event.getServerId().getAddress());
+        pool.waiting.decrementAndGet();
+        pool.checkOutFailed.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        pool(event.getConnectionId().getServerId().getAddress()).checkedOut.decrementAndGet();
+    }
+
+    private Pool pool(ServerAddress address) {
+        return pools.computeIfAbsent(address, Pool::new);
+    }
+
+    /**
+     * 单个服务器的连接池统计
+     */
+    @Getter
+    public static class Pool {
+
+        private final ServerAddress address;
+
+        private volatile int maxSize;
+
+        /**
+         * 已建立的连接数
+         */
+        private final AtomicInteger open = new AtomicInteger();
+
+        /**
+         * 已借出的连接数
+         */
+        private final AtomicInteger checkedOut = new AtomicInteger();
+
+        /**
+         * 正在等待借出的请求数
+         */
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        /**
+         * 累计借出失败次数
+         */
+        private final AtomicLong checkOutFailed = new AtomicLong();
+
+        private Pool(ServerAddress address) {
+            this.address = address;
+        }
+    }
+}
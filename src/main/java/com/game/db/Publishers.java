@@ -0,0 +1,114 @@
+package com.game.db;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive Streams 发布者到 CompletableFuture 的转换
+ * 结果在指定执行器（通常是会话所属的 EventLoop）上完成，后续回调随之在该线程执行
+ *
+ * @author Harleysama
+ */
+final class Publishers {
+
+    private Publishers() {
+    }
+
+    /**
+     * 取第一个元素，没有元素时结果为 null
+     */
+    static <T> CompletableFuture<T> first(Publisher<T> publisher, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+            private boolean done;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                if (!done) {
+                    done = true;
+                    subscription.cancel();
+                    complete(future, item, executor);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!done) {
+                    done = true;
+                    fail(future, t, executor);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (!done) {
+                    done = true;
+                    complete(future, null, executor);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 收集全部元素
+     */
+    static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher, Executor executor) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private final List<T> items = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(future, t, executor);
+            }
+
+            @Override
+            public void onComplete() {
+                complete(future, items, executor);
+            }
+        });
+        return future;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Executor executor) {
+        try {
+            executor.execute(() -> future.complete(value));
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭（如 EventLoop 正在停止），在驱动线程上直接完成
+            future.complete(value);
+        }
+    }
+
+    private static void fail(CompletableFuture<?> future, Throwable cause, Executor executor) {
+        try {
+            executor.execute(() -> future.completeExceptionally(cause));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.game.db;
+
+import com.game.model.Role;
+import com.game.util.ConcurrentLongMap;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.UpdateOneModel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 角色缓存（延迟写回）
+ * 角色在线期间常驻内存，修改后只标记为脏，由后台线程按固定间隔收集脏角色，以无序 bulkWrite 分批写回
+ * <p>
+ * 对同一角色的修改与写回快照都在角色对象上加锁，快照只包含已修改的字段和增量（见 {@link Role#getChangedFields()}），
+ * 写回失败时该角色改为完整写入。所有写回和淘汰都在单个写回线程上执行：角色下线后先立即写回，确认没有未写入的修改才从缓存移除，
+ * 因此缓存未命中时从数据库读到的一定是最新数据
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class RoleCache {
+
+    private static volatile RoleCache INSTANCE;
+
+    private final RoleDao roleDao;
+
+    /**
+     * 每次 bulkWrite 的最大角色数
+     */
+    private final int batchSize;
+
+    /**
+     * 角色ID -> 缓存项
+     */
+    private final ConcurrentLongMap<Entry> entries = new ConcurrentLongMap<>(4096, 64);
+
+    /**
+     * 待写回的缓存项，每个脏角色只入队一次
+     */
+    private final Queue<Entry> dirtyQueue = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService flusher;
+
+    private final ScheduledFuture<?> flushTask;
+
+    private RoleCache(RoleDao roleDao, long flushIntervalMillis, int batchSize) {
+        this.roleDao = roleDao;
+        this.batchSize = Math.max(1, batchSize);
+        long interval = Math.max(1, flushIntervalMillis);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("role-flusher", true));
+        this.flushTask = flusher.scheduleWithFixedDelay(this::flushDirty, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("角色缓存已启动: 写回间隔={}ms, 批量大小={}", interval, this.batchSize);
+    }
+
+    /**
+     * 初始化角色缓存
+     */
+    public static synchronized void init(RoleDao roleDao, long flushIntervalMillis, int batchSize) {
+        if (INSTANCE == null) {
+            INSTANCE = new RoleCache(roleDao, flushIntervalMillis, batchSize);
+        }
+    }
+
+    /**
+     * 获取单例实例
+     */
+    public static RoleCache getInstance() {
+        if (INSTANCE == null) {
+            throw new IllegalStateException("RoleCache 未初始化，请先调用 init() 方法");
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 初始化后返回实例，未初始化时返回 null
+     */
+    public static RoleCache getInstanceIfPresent() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取缓存中的角色，不在缓存中时返回 null
+     */
+    public Role get(long roleId) {
+        Entry entry = entries.get(roleId);
+        return entry == null ? null : entry.role;
+    }
+
+    /**
+     * 获取角色，不在缓存中时从数据库加载（阻塞，应在业务线程调用）
+     *
+     * @return 角色，不存在时返回 null
+     */
+    public Role load(long roleId) {
+        return load(roleId, null);
+    }
+
+    /**
+     * 获取指定用户的角色，不在缓存中时从数据库加载（阻塞，应在业务线程调用）
+     * 角色不属于该用户时不放入缓存，也不改变已缓存角色的在线状态
+     *
+     * @param userId 角色所属用户ID，为 null 时不校验
+     * @return 角色，不存在或不属于该用户时返回 null
+     */
+    public Role load(long roleId, Long userId) {
+        while (true) {
+            Entry entry = entries.get(roleId);
+            if (entry != null) {
+                synchronized (entry.role) {
+                    if (!entry.evicted) {
+                        if (userId != null && !userId.equals(entry.role.getUserId())) {
+                            return null;
+                        }
+                        entry.offline = false;
+                        return entry.role;
+                    }
+                }
+                // 刚被淘汰，数据已写回，重新加载
+            }
+            Role role = roleDao.findById(roleId);
+            if (role == null || (userId != null && !userId.equals(role.getUserId()))) {
+                return null;
+            }
+            if (entries.putIfAbsent(roleId, new Entry(role)) == null) {
+                return role;
+            }
+        }
+    }
+
+    /**
+     * 放入新创建的角色（已写入数据库）
+     */
+    public void add(Role role) {
+        entries.putIfAbsent(role.getId(), new Entry(role));
+    }
+
+    /**
+     * 在角色锁内修改角色并标记为脏
+     */
+    public void mutate(Role role, Consumer<Role> mutation) {
+        synchronized (role) {
+            mutation.accept(role);
+            markDirty(role);
+        }
+    }
+
+    /**
+     * 标记角色为脏，等待下次写回
+     * 修改与标记之间若可能与写回并发，应使用 {@link #mutate}
+     */
+    public void markDirty(Role role) {
+        Entry entry = entries.get(role.getId());
+        if (entry == null || entry.role != role) {
+            log.warn("角色不在缓存中，修改不会写回: roleId={}", role.getId());
+            return;
+        }
+        synchronized (role) {
+            if (!entry.dirty) {
+                entry.dirty = true;
+                dirtyQueue.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * 角色下线：在写回线程上立即写回，写回成功后从缓存移除，不阻塞调用线程
+     */
+    public void release(long roleId) {
+        Entry entry = entries.get(roleId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry.role) {
+            entry.offline = true;
+        }
+        try {
+            flusher.execute(() -> unloadEntry(entry));
+        } catch (RejectedExecutionException e) {
+            log.warn("角色缓存已关闭，跳过下线写回: roleId={}", roleId);
+        }
+    }
+
+    /**
+     * 角色下线并同步等待写回完成
+     */
+    public void unload(long roleId) {
+        Entry entry = entries.get(roleId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry.role) {
+            entry.offline = true;
+        }
+        await(flusher.submit(() -> unloadEntry(entry)));
+    }
+
+    /**
+     * 缓存的角色数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 停止定时写回，并同步写回所有脏角色
+     */
+    public void shutdown() {
+        flushTask.cancel(false);
+        try {
+            await(flusher.submit(() -> {
+                while (!dirtyQueue.isEmpty()) {
+                    if (!flushBatch()) {
+                        log.error("关闭时写回角色失败，剩余 {} 个脏角色", dirtyQueue.size());
+                        return;
+                    }
+                }
+            }));
+        } finally {
+            flusher.shutdown();
+        }
+        log.info("角色缓存已关闭");
+    }
+
+    /**
+     * 定时任务：分批写回所有脏角色
+     */
+    private void flushDirty() {
+        try {
+            while (!dirtyQueue.isEmpty()) {
+                if (!flushBatch()) {
+                    // 数据库异常，等下个周期重试
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("角色写回异常: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从脏队列取出一批写回
+     *
+     * @return 是否全部写入成功
+     */
+    private boolean flushBatch() {
+        List<Entry> batch = new ArrayList<>(Math.min(batchSize, 64));
+        List<UpdateOneModel<Role>> models = new ArrayList<>(Math.min(batchSize, 64));
+        Entry entry;
+        while (batch.size() < batchSize && (entry = dirtyQueue.poll()) != null) {
+            UpdateOneModel<Role> model;
+            synchronized (entry.role) {
+                if (!entry.dirty) {
+                    continue;
+                }
+                entry.dirty = false;
+                model = roleDao.updateModel(entry.role);
+            }
+            if (model == null) {
+                // 标记为脏但没有实际修改
+                tryEvict(entry);
+                continue;
+            }
+            models.add(model);
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        boolean success = write(batch, models);
+        for (Entry written : batch) {
+            tryEvict(written);
+        }
+        return success;
+    }
+
+    /**
+     * 下线写回：角色为脏时单独写回，然后尝试淘汰
+     */
+    private void unloadEntry(Entry entry) {
+        UpdateOneModel<Role> model = null;
+        synchronized (entry.role) {
+            if (entry.dirty) {
+                entry.dirty = false;
+                model = roleDao.updateModel(entry.role);
+            }
+        }
+        if (model != null) {
+            write(List.of(entry), List.of(model));
+        }
+        tryEvict(entry);
+    }
+
+    /**
+     * 执行 bulkWrite，失败的角色重新标记为脏
+     */
+    private boolean write(List<Entry> batch, List<UpdateOneModel<Role>> models) {
+        try {
+            roleDao.bulkWrite(models);
+            log.debug("写回角色: {} 个", batch.size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null || e.getWriteErrors().isEmpty()) {
+                // 写关注未满足：没有报错的写入同样未被确认，整批重写
+                log.error("角色写回未确认: count={}, writeErrors={}, writeConcernError={}",
+                        batch.size(), e.getWriteErrors().size(), e.getWriteConcernError());
+                for (Entry failed : batch) {
+                    redirty(failed);
+                }
+                return false;
+            }
+            log.error("部分角色写回失败: {}/{}", e.getWriteErrors().size(), batch.size());
+            for (BulkWriteError error : e.getWriteErrors()) {
+                redirty(batch.get(error.getIndex()));
+            }
+            return false;
+        } catch (Exception e) {
+            log.error("角色写回失败: count={}, error={}", batch.size(), e.getMessage());
+            for (Entry failed : batch) {
+                redirty(failed);
+            }
+            return false;
+        }
+    }
+
+    private void redirty(Entry entry) {
+        synchronized (entry.role) {
+            // 修改记录已在构建更新时清除，且无法确认增量是否已生效，改为写入完整状态
+            entry.role.markAllChanged();
+            if (!entry.dirty) {
+                entry.dirty = true;
+                dirtyQueue.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * 已下线且没有未写回的修改时从缓存移除（仅在写回线程调用）
+     */
+    private void tryEvict(Entry entry) {
+        synchronized (entry.role) {
+            if (!entry.offline || entry.dirty || entry.evicted) {
+                return;
+            }
+            entry.evicted = true;
+        }
+        entries.remove(entry.role.getId(), entry);
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("角色写回异常: {}", e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 缓存项，状态字段均在 role 的锁内访问
+     */
+    private static final class Entry {
+
+        private final Role role;
+
+        /**
+         * 是否有未写回的修改（为 true 时已在脏队列中）
+         */
+        private boolean dirty;
+
+        /**
+         * 角色是否已下线
+         */
+        private boolean offline;
+
+        /**
+         * 是否已从缓存移除
+         */
+        private boolean evicted;
+
+        private Entry(Role role) {
+            this.role = role;
+        }
+    }
+}
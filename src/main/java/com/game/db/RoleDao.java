@@ -1,120 +1,206 @@
 package com.game.db;
 
 import com.game.model.Role;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 角色数据访问对象
+ * 查询和插入由 {@link com.game.db.codec.RoleCodec} 直接转换实体，更新只写入修改过的字段
+ * <p>
+ * 带 Async 后缀的方法基于异步驱动，不阻塞调用线程，结果在传入的执行器（通常是会话的 EventLoop）上完成
  *
  * @author Harleysama
  */
 @Slf4j
 public class RoleDao {
 
-    private MongoCollection<Document> getCollection() {
-        return MongoManager.getInstance().getDatabase().getCollection("roles");
+    private MongoCollection<Role> getCollection() {
+        return MongoManager.getInstance().getDatabase().getCollection("roles", Role.class);
+    }
+
+    private com.mongodb.reactivestreams.client.MongoCollection<Role> getAsyncCollection() {
+        return MongoManager.getInstance().getAsyncDatabase().getCollection("roles", Role.class);
     }
 
     /**
      * 根据用户ID查找角色列表
      */
     public List<Role> findByUserId(Long userId) {
-        List<Role> roles = new ArrayList<>();
-        getCollection().find(Filters.eq("user_id", userId))
-                .forEach(doc -> roles.add(documentToRole(doc)));
-        return roles;
+        return getCollection().find(Filters.eq("user_id", userId)).into(new ArrayList<>());
     }
 
     /**
      * 根据角色ID查找角色
      */
     public Role findById(Long roleId) {
-        Document doc = getCollection().find(Filters.eq("_id", roleId)).first();
-        return documentToRole(doc);
+        return getCollection().find(Filters.eq("_id", roleId)).first();
     }
 
     /**
      * 创建角色
      */
     public void create(Role role) {
-        Document doc = roleToDocument(role);
-        getCollection().insertOne(doc);
+        getCollection().insertOne(role);
+        role.clearChanges();
         log.info("创建角色: roleId={}, name={}", role.getId(), role.getName());
     }
 
     /**
-     * 更新角色
+     * 更新角色，只写入自上次保存以来修改过的字段
      */
     public void update(Role role) {
-        getCollection().updateOne(
-                Filters.eq("_id", role.getId()),
-                new Document("$set", roleToDocument(role))
-        );
+        UpdateOneModel<Role> model;
+        synchronized (role) {
+            model = updateModel(role);
+        }
+        if (model == null) {
+            return;
+        }
+        try {
+            getCollection().updateOne(model.getFilter(), model.getUpdate());
+        } catch (RuntimeException e) {
+            // 无法确认增量是否已生效，下次保存写入完整状态
+            synchronized (role) {
+                role.markAllChanged();
+            }
+            throw e;
+        }
         log.debug("更新角色: roleId={}", role.getId());
     }
 
     /**
-     * 删除角色
+     * 根据用户ID查找角色列表（异步）
+     *
+     * @param executor 完成回调所在的执行器
      */
-    public void delete(Long roleId) {
-        getCollection().deleteOne(Filters.eq("_id", roleId));
-        log.info("删除角色: roleId={}", roleId);
+    public CompletableFuture<List<Role>> findByUserIdAsync(Long userId, Executor executor) {
+        return Publishers.toList(getAsyncCollection().find(Filters.eq("user_id", userId)), executor);
+    }
+
+    /**
+     * 根据角色ID查找角色（异步）
+     */
+    public CompletableFuture<Role> findByIdAsync(Long roleId, Executor executor) {
+        return Publishers.first(getAsyncCollection().find(Filters.eq("_id", roleId)).first(), executor);
+    }
+
+    /**
+     * 更新角色（异步），只写入自上次保存以来修改过的字段
+     *
+     * @return 更新结果，没有修改时为 null
+     */
+    public CompletableFuture<UpdateResult> updateAsync(Role role, Executor executor) {
+        UpdateOneModel<Role> model;
+        synchronized (role) {
+            model = updateModel(role);
+        }
+        if (model == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return Publishers.first(getAsyncCollection().updateOne(model.getFilter(), model.getUpdate()), executor)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        // 无法确认增量是否已生效，下次保存写入完整状态
+                        synchronized (role) {
+                            role.markAllChanged();
+                        }
+                    }
+                });
     }
 
     /**
-     * Document -> Role 转换
+     * 按修改记录构建单个角色的更新操作，并清除修改记录
+     * 直接设置的字段写入 $set，只有增量的字段写入 $inc；调用方需持有角色锁，避免并发修改在写入前被清除
+     *
+     * @return 更新操作，没有修改时返回 null
      */
-    private Role documentToRole(Document doc) {
-        if (doc == null) {
+    public UpdateOneModel<Role> updateModel(Role role) {
+        if (!role.hasChanges()) {
+            return null;
+        }
+        long changed = role.getChangedFields();
+        Document set = new Document();
+        appendIfChanged(set, changed, Role.USER_ID, "user_id", role.getUserId());
+        appendIfChanged(set, changed, Role.NAME, "name", role.getName());
+        appendIfChanged(set, changed, Role.LEVEL, "level", role.getLevel());
+        appendIfChanged(set, changed, Role.PROFESSION, "profession", role.getProfession());
+        appendIfChanged(set, changed, Role.EXP, "exp", role.getExp());
+        appendIfChanged(set, changed, Role.GOLD, "gold", role.getGold());
+        appendIfChanged(set, changed, Role.DIAMOND, "diamond", role.getDiamond());
+        appendIfChanged(set, changed, Role.HP, "hp", role.getHp());
+        appendIfChanged(set, changed, Role.MAX_HP, "max_hp", role.getMaxHp());
+        appendIfChanged(set, changed, Role.MP, "mp", role.getMp());
+        appendIfChanged(set, changed, Role.MAX_MP, "max_mp", role.getMaxMp());
+        appendIfChanged(set, changed, Role.ATTACK, "attack", role.getAttack());
+        appendIfChanged(set, changed, Role.DEFENSE, "defense", role.getDefense());
+        appendIfChanged(set, changed, Role.SPEED, "speed", role.getSpeed());
+        appendIfChanged(set, changed, Role.LAST_LOGIN_TIME, "last_login_time", role.getLastLoginTime());
+        appendIfChanged(set, changed, Role.MAP_ID, "map_id", role.getMapId());
+        appendIfChanged(set, changed, Role.X, "x", role.getX());
+        appendIfChanged(set, changed, Role.Y, "y", role.getY());
+        appendIfChanged(set, changed, Role.Z, "z", role.getZ());
+        appendIfChanged(set, changed, Role.ROTATION, "rotation", role.getRotation());
+
+        Document inc = new Document();
+        appendIfNonZero(inc, "exp", role.getPendingExpDelta());
+        appendIfNonZero(inc, "gold", role.getPendingGoldDelta());
+        appendIfNonZero(inc, "diamond", role.getPendingDiamondDelta());
+
+        role.clearChanges();
+
+        Document update = new Document();
+        if (!set.isEmpty()) {
+            update.append("$set", set);
+        }
+        if (!inc.isEmpty()) {
+            update.append("$inc", inc);
+        }
+        if (update.isEmpty()) {
+            // 增量相互抵消
             return null;
         }
-        Role role = new Role();
-        role.setId(doc.getLong("_id"));
-        role.setUserId(doc.getLong("user_id"));
-        role.setName(doc.getString("name"));
-        role.setLevel(doc.getInteger("level"));
-        role.setProfession(doc.getInteger("profession"));
-        role.setExp(doc.getLong("exp"));
-        role.setGold(doc.getLong("gold"));
-        role.setDiamond(doc.getLong("diamond"));
-        role.setHp(doc.getInteger("hp"));
-        role.setMaxHp(doc.getInteger("max_hp"));
-        role.setMp(doc.getInteger("mp"));
-        role.setMaxMp(doc.getInteger("max_mp"));
-        role.setAttack(doc.getInteger("attack"));
-        role.setDefense(doc.getInteger("defense"));
-        role.setSpeed(doc.getInteger("speed"));
-        role.setLastLoginTime(doc.getLong("last_login_time"));
-        return role;
+        return new UpdateOneModel<>(Filters.eq("_id", role.getId()), update);
+    }
+
+    /**
+     * 批量写入（无序，单条失败不影响其余操作）
+     *
+     * @throws com.mongodb.MongoBulkWriteException 部分操作失败
+     */
+    public BulkWriteResult bulkWrite(List<? extends WriteModel<Role>> models) {
+        return getCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
     }
 
     /**
-     * Role -> Document 转换
+     * 删除角色
      */
-    private Document roleToDocument(Role role) {
-        Document doc = new Document();
-        doc.append("_id", role.getId());
-        doc.append("user_id", role.getUserId());
-        doc.append("name", role.getName());
-        doc.append("level", role.getLevel());
-        doc.append("profession", role.getProfession());
-        doc.append("exp", role.getExp());
-        doc.append("gold", role.getGold());
-        doc.append("diamond", role.getDiamond());
-        doc.append("hp", role.getHp());
-        doc.append("max_hp", role.getMaxHp());
-        doc.append("mp", role.getMp());
-        doc.append("max_mp", role.getMaxMp());
-        doc.append("attack", role.getAttack());
-        doc.append("defense", role.getDefense());
-        doc.append("speed", role.getSpeed());
-        doc.append("last_login_time", role.getLastLoginTime());
-        return doc;
+    public void delete(Long roleId) {
+        getCollection().deleteOne(Filters.eq("_id", roleId));
+        log.info("删除角色: roleId={}", roleId);
+    }
+
+    private static void appendIfChanged(Document set, long changed, long field, String key, Object value) {
+        if ((changed & field) != 0) {
+            set.append(key, value);
+        }
+    }
+
+    private static void appendIfNonZero(Document inc, String key, long delta) {
+        if (delta != 0) {
+            inc.append(key, delta);
+        }
     }
 }
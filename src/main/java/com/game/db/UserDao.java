@@ -3,45 +3,52 @@ package com.game.db;
 import com.game.model.User;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
 import lombok.extern.slf4j.Slf4j;
-import org.bson.Document;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.mongodb.client.model.Updates.set;
 
 /**
  * 用户数据访问对象
+ * 实体与 BSON 之间的转换由 {@link com.game.db.codec.UserCodec} 完成
+ * <p>
+ * 带 Async 后缀的方法基于异步驱动，不阻塞调用线程，结果在传入的执行器（通常是会话的 EventLoop）上完成
  *
  * @author Harleysama
  */
 @Slf4j
 public class UserDao {
 
-    private MongoCollection<Document> getCollection() {
-        return MongoManager.getInstance().getDatabase().getCollection("users");
+    private MongoCollection<User> getCollection() {
+        return MongoManager.getInstance().getDatabase().getCollection("users", User.class);
+    }
+
+    private com.mongodb.reactivestreams.client.MongoCollection<User> getAsyncCollection() {
+        return MongoManager.getInstance().getAsyncDatabase().getCollection("users", User.class);
     }
 
     /**
      * 根据用户名查找用户
      */
     public User findByUsername(String username) {
-        Document doc = getCollection().find(Filters.eq("username", username)).first();
-        return documentToUser(doc);
+        return getCollection().find(Filters.eq("username", username)).first();
     }
 
     /**
      * 根据ID查找用户
      */
     public User findById(Long userId) {
-        Document doc = getCollection().find(Filters.eq("_id", userId)).first();
-        return documentToUser(doc);
+        return getCollection().find(Filters.eq("_id", userId)).first();
     }
 
     /**
      * 创建用户
      */
     public void create(User user) {
-        Document doc = userToDocument(user);
-        getCollection().insertOne(doc);
+        getCollection().insertOne(user);
         log.info("创建用户: userId={}, username={}", user.getId(), user.getUsername());
     }
 
@@ -57,31 +64,29 @@ public class UserDao {
     }
 
     /**
-     * Document -> User 转换
+     * 根据用户名查找用户（异步）
+     *
+     * @param executor 完成回调所在的执行器
+     * @return 用户，不存在时为 null
      */
-    private User documentToUser(Document doc) {
-        if (doc == null) {
-            return null;
-        }
-        User user = new User();
-        user.setId(doc.getLong("_id"));
-        user.setUsername(doc.getString("username"));
-        user.setPassword(doc.getString("password"));
-        user.setCreateTime(doc.getLong("create_time"));
-        user.setLastLoginTime(doc.getLong("last_login_time"));
-        return user;
+    public CompletableFuture<User> findByUsernameAsync(String username, Executor executor) {
+        return Publishers.first(getAsyncCollection().find(Filters.eq("username", username)).first(), executor);
     }
 
     /**
-     * User -> Document 转换
+     * 根据ID查找用户（异步）
      */
-    private Document userToDocument(User user) {
-        Document doc = new Document();
-        doc.append("_id", user.getId());
-        doc.append("username", user.getUsername());
-        doc.append("password", user.getPassword());
-        doc.append("create_time", user.getCreateTime());
-        doc.append("last_login_time", user.getLastLoginTime());
-        return doc;
+    public CompletableFuture<User> findByIdAsync(Long userId, Executor executor) {
+        return Publishers.first(getAsyncCollection().find(Filters.eq("_id", userId)).first(), executor);
+    }
+
+    /**
+     * 更新用户（异步）
+     */
+    public CompletableFuture<UpdateResult> updateAsync(User user, Executor executor) {
+        return Publishers.first(getAsyncCollection().updateOne(
+                Filters.eq("_id", user.getId()),
+                set("last_login_time", user.getLastLoginTime())
+        ), executor);
     }
 }
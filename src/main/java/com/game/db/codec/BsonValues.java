@@ -0,0 +1,100 @@
+package com.game.db.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+/**
+ * 编解码器共用的读写工具
+ * 数值字段按当前 BSON 类型读取并转换，兼容 $inc 或其他写入方产生的 int32 / int64 / double 混用
+ *
+ * @author Harleysama
+ */
+final class BsonValues {
+
+    private BsonValues() {
+    }
+
+    static Long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return (long) reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static Integer readInt(BsonReader reader) {
+        Long value = readLong(reader);
+        return value == null ? null : value.intValue();
+    }
+
+    static Float readFloat(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE:
+                return (float) reader.readDouble();
+            case INT32:
+                return (float) reader.readInt32();
+            case INT64:
+                return (float) reader.readInt64();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+        } else {
+            reader.skipValue();
+        }
+        return null;
+    }
+
+    static void writeLong(BsonWriter writer, String name, Long value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt64(name, value);
+        }
+    }
+
+    static void writeInt(BsonWriter writer, String name, Integer value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeFloat(BsonWriter writer, String name, Float value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeDouble(name, value);
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+}
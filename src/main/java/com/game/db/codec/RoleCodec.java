@@ -0,0 +1,89 @@
+package com.game.db.codec;
+
+import com.game.model.Role;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static com.game.db.codec.BsonValues.*;
+
+/**
+ * Role 编解码器
+ * 直接在 BSON 与实体之间转换，不经过 Document；解码完成后清除修改记录
+ * <p>
+ * 文档中缺少的字段（如早期数据没有位置字段）保留实体默认值
+ *
+ * @author Harleysama
+ */
+public class RoleCodec implements Codec<Role> {
+
+    @Override
+    public Role decode(BsonReader reader, DecoderContext decoderContext) {
+        Role role = new Role();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> role.setId(readLong(reader));
+                case "user_id" -> role.setUserId(readLong(reader));
+                case "name" -> role.setName(readString(reader));
+                case "level" -> role.setLevel(readInt(reader));
+                case "profession" -> role.setProfession(readInt(reader));
+                case "exp" -> role.setExp(readLong(reader));
+                case "gold" -> role.setGold(readLong(reader));
+                case "diamond" -> role.setDiamond(readLong(reader));
+                case "hp" -> role.setHp(readInt(reader));
+                case "max_hp" -> role.setMaxHp(readInt(reader));
+                case "mp" -> role.setMp(readInt(reader));
+                case "max_mp" -> role.setMaxMp(readInt(reader));
+                case "attack" -> role.setAttack(readInt(reader));
+                case "defense" -> role.setDefense(readInt(reader));
+                case "speed" -> role.setSpeed(readInt(reader));
+                case "last_login_time" -> role.setLastLoginTime(readLong(reader));
+                case "map_id" -> role.setMapId(readInt(reader));
+                case "x" -> role.setX(readFloat(reader));
+                case "y" -> role.setY(readFloat(reader));
+                case "z" -> role.setZ(readFloat(reader));
+                case "rotation" -> role.setRotation(readFloat(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        role.clearChanges();
+        return role;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Role role, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeLong(writer, "_id", role.getId());
+        writeLong(writer, "user_id", role.getUserId());
+        writeString(writer, "name", role.getName());
+        writeInt(writer, "level", role.getLevel());
+        writeInt(writer, "profession", role.getProfession());
+        writeLong(writer, "exp", role.getExp());
+        writeLong(writer, "gold", role.getGold());
+        writeLong(writer, "diamond", role.getDiamond());
+        writeInt(writer, "hp", role.getHp());
+        writeInt(writer, "max_hp", role.getMaxHp());
+        writeInt(writer, "mp", role.getMp());
+        writeInt(writer, "max_mp", role.getMaxMp());
+        writeInt(writer, "attack", role.getAttack());
+        writeInt(writer, "defense", role.getDefense());
+        writeInt(writer, "speed", role.getSpeed());
+        writeLong(writer, "last_login_time", role.getLastLoginTime());
+        writeInt(writer, "map_id", role.getMapId());
+        writeFloat(writer, "x", role.getX());
+        writeFloat(writer, "y", role.getY());
+        writeFloat(writer, "z", role.getZ());
+        writeFloat(writer, "rotation", role.getRotation());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Role> getEncoderClass() {
+        return Role.class;
+    }
+}
@@ -0,0 +1,54 @@
+package com.game.db.codec;
+
+import com.game.model.User;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import static com.game.db.codec.BsonValues.*;
+
+/**
+ * User 编解码器
+ * 直接在 BSON 与实体之间转换，不经过 Document
+ *
+ * @author Harleysama
+ */
+public class UserCodec implements Codec<User> {
+
+    @Override
+    public User decode(BsonReader reader, DecoderContext decoderContext) {
+        User user = new User();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> user.setId(readLong(reader));
+                case "username" -> user.setUsername(readString(reader));
+                case "password" -> user.setPassword(readString(reader));
+                case "create_time" -> user.setCreateTime(readLong(reader));
+                case "last_login_time" -> user.setLastLoginTime(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return user;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, User user, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeLong(writer, "_id", user.getId());
+        writeString(writer, "username", user.getUsername());
+        writeString(writer, "password", user.getPassword());
+        writeLong(writer, "create_time", user.getCreateTime());
+        writeLong(writer, "last_login_time", user.getLastLoginTime());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<User> getEncoderClass() {
+        return User.class;
+    }
+}
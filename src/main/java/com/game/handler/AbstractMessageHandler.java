@@ -1,5 +1,6 @@
 package com.game.handler;
 
+import com.game.net.MessagePacket;
 import com.game.net.ProtocolPacket;
 import com.game.net.Session;
 import com.game.net.SessionManager;
@@ -8,17 +9,33 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import com.google.protobuf.Parser;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.FastThreadLocal;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * 抽象消息处理器
  * 提供消息处理的基础功能实现
+ * <p>
+ * 请求携带的序列号在 handle 期间保存在当前线程上，sendResponse / sendError 自动回传；
+ * 在异步回调中响应时，需先通过 {@link #currentSequence()} 取得序列号并显式传入
  *
  * @author Harleysama
  */
 @Slf4j
 public abstract class AbstractMessageHandler<T extends Message> implements MessageHandler {
 
+    /**
+     * 当前线程正在处理的请求序列号
+     */
+    private static final FastThreadLocal<int[]> CURRENT_SEQUENCE = new FastThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
     /**
      * 获取Protobuf解析器
      */
@@ -30,60 +47,102 @@ public abstract class AbstractMessageHandler<T extends Message> implements Messa
     protected abstract void handle(ChannelHandlerContext ctx, Session session, T message) throws Exception;
 
     @Override
-    public void handle(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception {
+    public CompletionStage<?> handle(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception {
+        int[] current = CURRENT_SEQUENCE.get();
+        int previous = current[0];
+        current[0] = packet.getSequence();
+        try {
+            return handlePacket(ctx, packet);
+        } finally {
+            current[0] = previous;
+        }
+    }
+
+    private CompletionStage<?> handlePacket(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception {
         // 获取会话
         Session session = SessionManager.getSession(ctx.channel());
         if (session == null) {
             log.warn("会话不存在，关闭连接");
             ctx.close();
-            return;
+            return null;
         }
 
-        // 更新活跃时间
-        session.updateActiveTime();
         session.incrementReceiveCount();
 
         // 解析消息
         T message = parseMessage(packet);
         if (message == null) {
             sendError(ctx, CommonProto.ErrorCode.INVALID_PARAM, "消息格式错误");
-            return;
+            return null;
         }
 
         // 处理业务逻辑
+        return dispatch(ctx, session, message);
+    }
+
+    /**
+     * 调用业务逻辑，返回 null 表示已处理完成（异步处理器见 {@link AsyncMessageHandler}）
+     */
+    CompletionStage<?> dispatch(ChannelHandlerContext ctx, Session session, T message) throws Exception {
         handle(ctx, session, message);
+        return null;
     }
 
     /**
      * 解析消息
+     * 零拷贝模式下直接从入站缓冲区切片解析，无需中间字节数组
      */
     protected T parseMessage(ProtocolPacket packet) {
         try {
-            return getParser().parseFrom(packet.getData());
+            return packet.parse(getParser());
         } catch (InvalidProtocolBufferException e) {
             log.error("消息解析失败: {}", e.getMessage());
             return null;
         }
     }
 
+    /**
+     * 当前正在处理的请求序列号，0 表示请求未携带
+     */
+    protected static int currentSequence() {
+        return CURRENT_SEQUENCE.get()[0];
+    }
+
     /**
      * 发送响应消息
+     * 消息对象由帧编码器直接序列化到出站缓冲区
      */
     protected void sendResponse(ChannelHandlerContext ctx, int messageType, Message message) {
-        ProtocolPacket packet = new ProtocolPacket(messageType, message.toByteArray());
-        ctx.writeAndFlush(packet);
+        sendResponse(ctx, currentSequence(), messageType, message);
+    }
+
+    /**
+     * 发送响应消息并回传指定的请求序列号
+     * 经由会话写出，受出站队列的背压和丢弃策略约束
+     */
+    protected void sendResponse(ChannelHandlerContext ctx, int sequence, int messageType, Message message) {
+        MessagePacket packet = new MessagePacket(messageType, message);
+        packet.setSequence(sequence);
+        SessionManager.send(ctx.channel(), packet);
     }
 
     /**
      * 发送错误消息
      */
     protected void sendError(ChannelHandlerContext ctx, CommonProto.ErrorCode code, String message) {
+        sendError(ctx, currentSequence(), code, message);
+    }
+
+    /**
+     * 发送错误消息并回传指定的请求序列号
+     */
+    protected void sendError(ChannelHandlerContext ctx, int sequence, CommonProto.ErrorCode code, String message) {
         CommonProto.Error error = CommonProto.Error.newBuilder()
                 .setCode(code)
                 .setMessage(message)
                 .build();
 
-        sendResponse(ctx, CommonProto.MessageType.ERROR_VALUE, error);
+        sendResponse(ctx, sequence, CommonProto.MessageType.ERROR_VALUE, error);
     }
 
     /**
@@ -0,0 +1,38 @@
+package com.game.handler;
+
+import com.game.net.Session;
+import com.google.protobuf.Message;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步完成的消息处理器
+ * 处理逻辑在 {@link #handleAsync} 返回后仍通过异步回调继续（如异步数据库查询），
+ * 返回的 CompletionStage 完成之前，同一连接的后续消息在会话邮箱中排队，不会越过本次请求先执行，
+ * 因此回调中绑定用户等修改会话状态的操作对后续消息可见
+ * <p>
+ * 回调不在 handle 调用栈内，响应时需先通过 {@link #currentSequence()} 取得序列号并显式传入
+ *
+ * @author Harleysama
+ */
+public abstract class AsyncMessageHandler<T extends Message> extends AbstractMessageHandler<T> {
+
+    /**
+     * 处理具体的业务逻辑
+     *
+     * @return 处理完成的通知（成功或失败都会恢复后续消息的分发），已同步处理完成时可返回 null
+     */
+    protected abstract CompletionStage<?> handleAsync(ChannelHandlerContext ctx, Session session, T message)
+            throws Exception;
+
+    @Override
+    protected final void handle(ChannelHandlerContext ctx, Session session, T message) throws Exception {
+        handleAsync(ctx, session, message);
+    }
+
+    @Override
+    final CompletionStage<?> dispatch(ChannelHandlerContext ctx, Session session, T message) throws Exception {
+        return handleAsync(ctx, session, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.game.handler;
+
+/**
+ * 消息处理器执行方式
+ *
+ * @author Harleysama
+ */
+public enum DispatchMode {
+
+    /**
+     * 直接在 Netty IO 线程上执行，适用于无阻塞的轻量处理器（心跳、握手等）
+     */
+    IO_THREAD,
+
+    /**
+     * 投递到业务线程池执行，适用于会阻塞的处理器（数据库访问等）
+     * 同一连接的消息仍按接收顺序串行执行
+     */
+    BUSINESS
+}
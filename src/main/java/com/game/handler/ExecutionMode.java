@@ -0,0 +1,25 @@
+package com.game.handler;
+
+/**
+ * 业务处理器执行模式
+ * 决定声明为 {@link DispatchMode#BUSINESS} 的处理器在哪里执行
+ *
+ * @author Harleysama
+ */
+public enum ExecutionMode {
+
+    /**
+     * 全部在 Netty IO 线程上执行（忽略处理器声明）
+     */
+    INLINE,
+
+    /**
+     * 在固定大小的平台线程池上执行
+     */
+    PLATFORM,
+
+    /**
+     * 每条消息一个虚拟线程，阻塞调用只挂起虚拟线程而不占用平台线程
+     */
+    VIRTUAL
+}
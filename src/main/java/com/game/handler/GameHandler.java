@@ -20,4 +20,24 @@ public @interface GameHandler {
      * 对应 Protocol Buffers 中定义的消息类型值
      */
     int messageType();
+
+    /**
+     * 执行方式
+     * 会阻塞的处理器（如访问数据库）应声明为 {@link DispatchMode#BUSINESS}，避免拖慢 IO 线程
+     */
+    DispatchMode dispatch() default DispatchMode.IO_THREAD;
+
+    /**
+     * 是否要求已登录
+     * 未登录的会话发送该类型消息时，在分发阶段直接返回认证失败
+     */
+    boolean requireLogin() default false;
+
+    /**
+     * 是否要求按接收顺序执行
+     * 声明为 false 的 {@link DispatchMode#BUSINESS} 处理器，对携带序列号的请求不经会话邮箱排队，
+     * 直接提交到业务线程池并发执行，可能乱序完成，客户端按序列号匹配响应。
+     * 并发执行的处理器不能修改会话状态，因此必须继承 {@link UnorderedMessageHandler}，否则编译期报错
+     */
+    boolean ordered() default true;
 }
@@ -0,0 +1,57 @@
+package com.game.handler;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 处理器注册项
+ * 注册时预先计算好分发所需的全部元数据，分发时无需再读取注解或做额外查找
+ *
+ * @author Harleysama
+ */
+@Getter
+@ToString
+public class HandlerEntry {
+
+    /**
+     * 消息类型
+     */
+    private final int messageType;
+
+    /**
+     * 消息处理器
+     */
+    private final MessageHandler handler;
+
+    /**
+     * 是否要求已登录
+     */
+    private final boolean requireLogin;
+
+    /**
+     * 执行方式
+     */
+    private final DispatchMode dispatchMode;
+
+    /**
+     * 是否要求按接收顺序执行
+     */
+    private final boolean ordered;
+
+    public HandlerEntry(int messageType, MessageHandler handler, boolean requireLogin, DispatchMode dispatchMode) {
+        this(messageType, handler, requireLogin, dispatchMode, true);
+    }
+
+    public HandlerEntry(int messageType, MessageHandler handler, boolean requireLogin, DispatchMode dispatchMode,
+                        boolean ordered) {
+        if (!ordered && !(handler instanceof UnorderedMessageHandler)) {
+            throw new IllegalArgumentException("ordered = false 的处理器必须继承 UnorderedMessageHandler: type="
+                    + messageType + ", handler=" + handler.getClass().getName());
+        }
+        this.messageType = messageType;
+        this.handler = handler;
+        this.requireLogin = requireLogin;
+        this.dispatchMode = dispatchMode;
+        this.ordered = ordered;
+    }
+}
@@ -0,0 +1,20 @@
+package com.game.handler;
+
+/**
+ * 处理器注册表
+ * 由注解处理器在编译期生成实现类 {@code GeneratedHandlerRegistry}
+ *
+ * @author Harleysama
+ */
+public interface HandlerRegistry {
+
+    /**
+     * 将所有处理器注册到管理器
+     */
+    void registerAll(MessageHandlerManager manager);
+
+    /**
+     * 注册表中的处理器数量
+     */
+    int size();
+}
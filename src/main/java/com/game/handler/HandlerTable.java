@@ -0,0 +1,112 @@
+package com.game.handler;
+
+import java.util.Collection;
+
+/**
+ * 处理器分发表
+ * 注册完成后冻结的只读表，消息类型在 [0, DENSE_LIMIT) 内时分发只需一次带边界检查的数组读取，
+ * 超出范围的稀疏类型落入开放寻址的 int 键哈希表，全程无装箱
+ *
+ * @author Harleysama
+ */
+final class HandlerTable {
+
+    /**
+     * 稠密数组的类型上限
+     */
+    static final int DENSE_LIMIT = 4096;
+
+    static final HandlerTable EMPTY = new HandlerTable(new HandlerEntry[0], new int[0], new HandlerEntry[0], 0);
+
+    /**
+     * 稠密部分：下标即消息类型
+     */
+    private final HandlerEntry[] dense;
+
+    /**
+     * 稀疏部分：线性探测哈希表
+     */
+    private final int[] sparseKeys;
+    private final HandlerEntry[] sparseValues;
+    private final int sparseMask;
+
+    private final int size;
+
+    private HandlerTable(HandlerEntry[] dense, int[] sparseKeys, HandlerEntry[] sparseValues, int size) {
+        this.dense = dense;
+        this.sparseKeys = sparseKeys;
+        this.sparseValues = sparseValues;
+        this.sparseMask = sparseKeys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * 根据注册项构建分发表
+     */
+    static HandlerTable build(Collection<HandlerEntry> entries) {
+        int maxDenseType = -1;
+        int sparseCount = 0;
+        for (HandlerEntry entry : entries) {
+            int type = entry.getMessageType();
+            if (type >= 0 && type < DENSE_LIMIT) {
+                maxDenseType = Math.max(maxDenseType, type);
+            } else {
+                sparseCount++;
+            }
+        }
+
+        HandlerEntry[] dense = new HandlerEntry[maxDenseType + 1];
+
+        // 稀疏表容量取 2 的幂，负载因子不超过 0.5
+        int capacity = sparseCount == 0 ? 0 : Integer.highestOneBit(sparseCount * 2 - 1) << 1;
+        int[] sparseKeys = new int[capacity];
+        HandlerEntry[] sparseValues = new HandlerEntry[capacity];
+
+        for (HandlerEntry entry : entries) {
+            int type = entry.getMessageType();
+            if (type >= 0 && type < DENSE_LIMIT) {
+                dense[type] = entry;
+            } else {
+                int index = mix(type) & (capacity - 1);
+                while (sparseValues[index] != null) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                sparseKeys[index] = type;
+                sparseValues[index] = entry;
+            }
+        }
+
+        return new HandlerTable(dense, sparseKeys, sparseValues, entries.size());
+    }
+
+    /**
+     * 查找注册项
+     */
+    HandlerEntry get(int messageType) {
+        HandlerEntry[] table = dense;
+        if (messageType >= 0 && messageType < table.length) {
+            return table[messageType];
+        }
+        if (sparseMask < 0) {
+            return null;
+        }
+        int index = mix(messageType) & sparseMask;
+        HandlerEntry entry;
+        while ((entry = sparseValues[index]) != null) {
+            if (sparseKeys[index] == messageType) {
+                return entry;
+            }
+            index = (index + 1) & sparseMask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,5 +1,6 @@
 package com.game.handler;
 
+import com.game.net.FrameOptions;
 import com.game.net.Session;
 import com.game.protocol.generated.CommonProto;
 import io.netty.channel.ChannelHandlerContext;
@@ -10,6 +11,9 @@ import java.util.UUID;
 /**
  * 握手处理器
  * 处理客户端握手请求，建立会话
+ * <p>
+ * 帧选项已由帧解码器在握手帧处协商（入站格式随之切换），这里取走协商结果、回复并切换出站格式；
+ * 每个连接只允许握手一次，重复握手回复参数错误且不改变帧格式
  *
  * @author Harleysama
  */
@@ -27,6 +31,14 @@ public class HandshakeHandler extends AbstractMessageHandler<CommonProto.Handsha
         log.info("客户端握手: version={}, deviceId={}, platform={}",
                 message.getVersion(), message.getDeviceId(), message.getPlatform());
 
+        // 取走帧解码器协商的帧选项，已被取走说明是重复握手
+        FrameOptions options = ctx.channel().attr(FrameOptions.NEGOTIATED_KEY).getAndSet(null);
+        if (options == null) {
+            log.warn("重复握手, 已拒绝: remote={}", ctx.channel().remoteAddress());
+            sendError(ctx, CommonProto.ErrorCode.INVALID_PARAM, "重复握手");
+            return;
+        }
+
         // 生成会话密钥
         String sessionKey = UUID.randomUUID().toString();
 
@@ -35,10 +47,18 @@ public class HandshakeHandler extends AbstractMessageHandler<CommonProto.Handsha
                 .setServerTime(System.currentTimeMillis())
                 .setSessionKey(sessionKey)
                 .setHeartbeatInterval(60) // 60秒心跳间隔
+                .setCompression(options.getCompression())
+                .setCompressThreshold(options.getCompressThreshold())
+                .setHeaderMode(options.getHeaderMode())
+                .setBatchEnabled(options.isBatchEnabled())
                 .build();
 
         sendResponse(ctx, CommonProto.MessageType.HANDSHAKE_RESP_VALUE, response);
 
-        log.info("握手成功: sessionKey={}", sessionKey);
+        // 握手响应本身以定长、未压缩格式发出，之后的帧按协商结果编解码
+        FrameOptions.apply(ctx.channel(), options);
+
+        log.info("握手成功: sessionKey={}, compression={}, headerMode={}",
+                sessionKey, options.getCompression(), options.getHeaderMode());
     }
 }
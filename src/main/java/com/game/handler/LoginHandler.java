@@ -1,50 +1,89 @@
 package com.game.handler;
 
+import com.game.db.RoleDao;
 import com.game.db.UserDao;
+import com.game.model.Role;
 import com.game.model.User;
 import com.game.net.Session;
 import com.game.net.SessionManager;
 import com.game.protocol.generated.AuthProto;
 import com.game.protocol.generated.CommonProto;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * 登录处理器
  * 处理用户登录请求
+ * <p>
+ * 通过异步 DAO 依次查询用户、加载角色列表并响应，回调都在连接所属的 EventLoop 上执行，不阻塞任何线程，
+ * 因此直接在 IO 线程分发；响应时显式回传请求序列号。
+ * 返回的登录流程完成之前，同一连接的后续消息（包括流水线发送的下一个 LOGIN）排队等待，
+ * 用户绑定按请求顺序生效，后续需登录的消息能看到本次登录的结果
  *
  * @author Harleysama
  */
 @Slf4j
 @GameHandler(messageType = CommonProto.MessageType.LOGIN_VALUE)
-public class LoginHandler extends AbstractMessageHandler<AuthProto.LoginRequest> {
+public class LoginHandler extends AsyncMessageHandler<AuthProto.LoginRequest> {
 
     private final UserDao userDao = new UserDao();
 
+    private final RoleDao roleDao = new RoleDao();
+
     @Override
     protected com.google.protobuf.Parser<AuthProto.LoginRequest> getParser() {
         return AuthProto.LoginRequest.parser();
     }
 
     @Override
-    protected void handle(ChannelHandlerContext ctx, Session session, AuthProto.LoginRequest message) throws Exception {
+    protected CompletionStage<?> handleAsync(ChannelHandlerContext ctx, Session session,
+                                             AuthProto.LoginRequest message) throws Exception {
         String username = message.getUsername();
         String password = message.getPassword();
+        // 回调不在 handle 调用栈内，需先取出序列号
+        int sequence = currentSequence();
+        EventLoop eventLoop = ctx.channel().eventLoop();
 
         log.info("用户登录请求: username={}", username);
 
         // 查询用户
-        User user = userDao.findByUsername(username);
-        if (user == null) {
-            log.warn("用户不存在: {}", username);
-            sendError(ctx, CommonProto.ErrorCode.AUTH_FAILED, "用户名或密码错误");
-            return;
-        }
+        return userDao.findByUsernameAsync(username, eventLoop)
+                .thenCompose(user -> {
+                    if (user == null) {
+                        log.warn("用户不存在: {}", username);
+                        sendError(ctx, sequence, CommonProto.ErrorCode.AUTH_FAILED, "用户名或密码错误");
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // 验证密码（实际项目应该使用加密密码）
+                    if (!user.getPassword().equals(password)) {
+                        log.warn("密码错误: {}", username);
+                        sendError(ctx, sequence, CommonProto.ErrorCode.AUTH_FAILED, "用户名或密码错误");
+                        return CompletableFuture.completedFuture(null);
+                    }
 
-        // 验证密码（实际项目应该使用加密密码）
-        if (!user.getPassword().equals(password)) {
-            log.warn("密码错误: {}", username);
-            sendError(ctx, CommonProto.ErrorCode.AUTH_FAILED, "用户名或密码错误");
+                    // 加载角色列表
+                    return roleDao.findByUserIdAsync(user.getId(), eventLoop)
+                            .thenAccept(roles -> completeLogin(ctx, sequence, user, roles));
+                })
+                .exceptionally(e -> {
+                    log.error("登录处理异常: username={}, error={}", username, e.getMessage(), e);
+                    sendError(ctx, sequence, CommonProto.ErrorCode.SERVER_ERROR, "服务器内部错误");
+                    return null;
+                });
+    }
+
+    /**
+     * 绑定用户并发送登录响应（在连接所属的 EventLoop 上执行）
+     */
+    private void completeLogin(ChannelHandlerContext ctx, int sequence, User user, List<Role> roles) {
+        if (!ctx.channel().isActive()) {
+            log.debug("登录完成前连接已断开: userId={}", user.getId());
             return;
         }
 
@@ -54,18 +93,38 @@ public class LoginHandler extends AbstractMessageHandler<AuthProto.LoginRequest>
         // 生成token（实际项目应该使用JWT等）
         String token = generateToken(user.getId());
 
-        // 构建角色列表
         AuthProto.LoginResponse.Builder responseBuilder = AuthProto.LoginResponse.newBuilder()
                 .setUserId(user.getId())
                 .setToken(token)
                 .setExpireTime(System.currentTimeMillis() + 7 * 24 * 60 * 60 * 1000); // 7天有效期
 
-        // TODO: 加载用户角色列表
-        // responseBuilder.addAllRoles(roleList);
+        // 构建角色列表
+        for (Role role : roles) {
+            responseBuilder.addRoles(toRoleInfo(role));
+        }
 
-        sendResponse(ctx, CommonProto.MessageType.LOGIN_RESP_VALUE, responseBuilder.build());
+        sendResponse(ctx, sequence, CommonProto.MessageType.LOGIN_RESP_VALUE, responseBuilder.build());
 
-        log.info("用户登录成功: userId={}, username={}", user.getId(), username);
+        log.info("用户登录成功: userId={}, username={}, roles={}", user.getId(), user.getUsername(), roles.size());
+    }
+
+    /**
+     * Role -> RoleInfo 转换
+     */
+    private AuthProto.RoleInfo toRoleInfo(Role role) {
+        AuthProto.RoleInfo.Builder builder = AuthProto.RoleInfo.newBuilder()
+                .setRoleId(role.getId())
+                .setName(role.getName() == null ? "" : role.getName());
+        if (role.getLevel() != null) {
+            builder.setLevel(role.getLevel());
+        }
+        if (role.getProfession() != null) {
+            builder.setProfession(role.getProfession());
+        }
+        if (role.getLastLoginTime() != null) {
+            builder.setLastLoginTime(role.getLastLoginTime());
+        }
+        return builder.build();
     }
 
     /**
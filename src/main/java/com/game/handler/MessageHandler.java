@@ -3,6 +3,8 @@ package com.game.handler;
 import com.game.net.ProtocolPacket;
 import io.netty.channel.ChannelHandlerContext;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * 消息处理器接口
  * 所有具体的消息处理器都需要实现此接口
@@ -16,7 +18,9 @@ public interface MessageHandler {
      *
      * @param ctx    Channel上下文
      * @param packet 协议数据包
+     * @return 处理在返回前已完成时为 null；否则返回处理完成的通知，
+     * 同一连接的后续消息在其完成（无论成功或失败）后才分发
      * @throws Exception 处理异常
      */
-    void handle(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception;
+    CompletionStage<?> handle(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception;
 }
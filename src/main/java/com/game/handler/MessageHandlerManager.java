@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Map;
@@ -14,7 +15,10 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * 消息处理器管理器
  * 管理所有消息处理器的注册和分发
- * 支持注解扫描自动注册
+ * 优先使用编译期生成的 {@link HandlerRegistry}，未生成时回退到注解扫描注册
+ * <p>
+ * 注册完成后冻结为按消息类型下标访问的 {@link HandlerTable}，分发时不再查询 Map、不装箱；
+ * 之后的注册/移除会重新构建并整体替换分发表
  *
  * @author Harleysama
  */
@@ -24,9 +28,19 @@ public class MessageHandlerManager {
     private static final MessageHandlerManager INSTANCE = new MessageHandlerManager();
 
     /**
-     * 消息类型 -> 处理器 映射
+     * 编译期生成的注册表类名（由 GameHandlerProcessor 生成）
      */
-    private final Map<Integer, MessageHandler> handlers = new ConcurrentHashMap<>();
+    private static final String GENERATED_REGISTRY = "com.game.handler.GeneratedHandlerRegistry";
+
+    /**
+     * 消息类型 -> 注册项 映射（仅用于注册阶段）
+     */
+    private final Map<Integer, HandlerEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 冻结后的分发表
+     */
+    private volatile HandlerTable table = HandlerTable.EMPTY;
 
     private MessageHandlerManager() {
     }
@@ -38,8 +52,47 @@ public class MessageHandlerManager {
         return INSTANCE;
     }
 
+    /**
+     * 从编译期生成的注册表注册所有处理器
+     *
+     * @return 是否找到生成的注册表
+     */
+    public boolean registerFromRegistry() {
+        HandlerRegistry registry;
+        try {
+            registry = (HandlerRegistry) Class.forName(GENERATED_REGISTRY).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            log.warn("未找到编译期生成的处理器注册表: {}，请确认注解处理器已启用", GENERATED_REGISTRY);
+            return false;
+        } catch (ReflectiveOperationException e) {
+            log.error("加载处理器注册表失败: {}", e.getMessage(), e);
+            return false;
+        }
+
+        registry.registerAll(this);
+        log.info("处理器注册表加载完成! 共注册 {} 个处理器", registry.size());
+        return true;
+    }
+
+    /**
+     * 注册处理器，注册后立即重建分发表
+     */
+    public void register(HandlerEntry entry) {
+        HandlerEntry existing = entries.put(entry.getMessageType(), entry);
+        if (existing != null) {
+            log.warn("消息处理器被覆盖: type={}, old={}, new={}", entry.getMessageType(),
+                    existing.getHandler().getClass().getSimpleName(), entry.getHandler().getClass().getSimpleName());
+        }
+        freeze();
+
+        log.info("注册消息处理器: type={}, handler={}, dispatch={}, requireLogin={}, ordered={}",
+                entry.getMessageType(), entry.getHandler().getClass().getSimpleName(),
+                entry.getDispatchMode(), entry.isRequireLogin(), entry.isOrdered());
+    }
+
     /**
      * 扫描指定包路径下的所有处理器并自动注册
+     * 仅支持文件系统目录（jar 包内请使用编译期生成的注册表）
      *
      * @param packageName 包名，例如 "com.game.handler"
      */
@@ -68,10 +121,8 @@ public class MessageHandlerManager {
                     MessageHandler handler = handlerClass.getDeclaredConstructor().newInstance();
 
                     // 使用注解中的 messageType 值注册
-                    int messageType = annotation.messageType();
-                    handlers.put(messageType, handler);
-
-                    log.info("注册消息处理器: type={}, handler={}", messageType, handler.getClass().getSimpleName());
+                    register(new HandlerEntry(annotation.messageType(), handler,
+                            annotation.requireLogin(), annotation.dispatch(), annotation.ordered()));
                     registeredCount++;
                 }
             }
@@ -138,18 +189,49 @@ public class MessageHandlerManager {
         }
     }
 
+    /**
+     * 冻结注册项，重新构建分发表
+     */
+    public synchronized void freeze() {
+        table = HandlerTable.build(entries.values());
+    }
+
+    /**
+     * 获取处理器注册项（分发热路径）
+     */
+    public HandlerEntry getEntry(int messageType) {
+        return table.get(messageType);
+    }
+
     /**
      * 获取处理器
      */
     public MessageHandler getHandler(int messageType) {
-        return handlers.get(messageType);
+        HandlerEntry entry = table.get(messageType);
+        return entry == null ? null : entry.getHandler();
+    }
+
+    /**
+     * 获取处理器执行方式
+     */
+    public DispatchMode getDispatchMode(int messageType) {
+        HandlerEntry entry = table.get(messageType);
+        return entry == null ? DispatchMode.IO_THREAD : entry.getDispatchMode();
+    }
+
+    /**
+     * 获取所有注册项
+     */
+    public Collection<HandlerEntry> getEntries() {
+        return entries.values();
     }
 
     /**
      * 移除处理器
      */
     public void removeHandler(int messageType) {
-        handlers.remove(messageType);
+        entries.remove(messageType);
+        freeze();
         log.info("移除消息处理器: type={}", messageType);
     }
 
@@ -157,6 +239,6 @@ public class MessageHandlerManager {
      * 获取已注册的处理器数量
      */
     public int getHandlerCount() {
-        return handlers.size();
+        return table.size();
     }
 }
@@ -0,0 +1,100 @@
+package com.game.handler;
+
+import com.game.db.RoleCache;
+import com.game.model.Role;
+import com.game.net.Session;
+import com.game.net.SessionManager;
+import com.game.protocol.generated.CommonProto;
+import com.game.protocol.generated.GameProto;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 选择角色处理器
+ * 通过角色缓存加载角色（未命中时查库，因此在业务线程执行），校验归属后绑定到会话并返回角色详情；
+ * 角色此后常驻缓存，修改经 {@link RoleCache#mutate} 延迟写回，连接断开或切换角色时下线写回
+ *
+ * @author Harleysama
+ */
+@Slf4j
+@GameHandler(messageType = CommonProto.MessageType.SELECT_ROLE_VALUE, dispatch = DispatchMode.BUSINESS,
+        requireLogin = true)
+public class SelectRoleHandler extends AbstractMessageHandler<GameProto.SelectRoleRequest> {
+
+    @Override
+    protected com.google.protobuf.Parser<GameProto.SelectRoleRequest> getParser() {
+        return GameProto.SelectRoleRequest.parser();
+    }
+
+    @Override
+    protected void handle(ChannelHandlerContext ctx, Session session, GameProto.SelectRoleRequest message)
+            throws Exception {
+        long roleId = message.getRoleId();
+        Long userId = session.getUserId();
+
+        RoleCache roleCache = RoleCache.getInstance();
+        Role role = roleCache.load(roleId, userId);
+        if (role == null) {
+            log.warn("选择的角色不存在或不属于当前用户: userId={}, roleId={}", userId, roleId);
+            sendError(ctx, CommonProto.ErrorCode.INVALID_PARAM, "角色不存在");
+            return;
+        }
+
+        if (!SessionManager.bindRole(ctx.channel(), roleId)) {
+            log.debug("选择角色时连接已断开: userId={}, roleId={}", userId, roleId);
+            return;
+        }
+
+        GameProto.RoleDetail detail;
+        synchronized (role) {
+            role.setLastLoginTime(System.currentTimeMillis());
+            roleCache.markDirty(role);
+            detail = toRoleDetail(role);
+        }
+
+        sendResponse(ctx, CommonProto.MessageType.SELECT_ROLE_RESP_VALUE,
+                GameProto.SelectRoleResponse.newBuilder().setRoleDetail(detail).build());
+
+        log.info("选择角色成功: userId={}, roleId={}, name={}", userId, roleId, role.getName());
+    }
+
+    /**
+     * Role -> RoleDetail 转换（在角色锁内调用）
+     */
+    private GameProto.RoleDetail toRoleDetail(Role role) {
+        return GameProto.RoleDetail.newBuilder()
+                .setRoleId(role.getId())
+                .setName(role.getName() == null ? "" : role.getName())
+                .setLevel(intValue(role.getLevel()))
+                .setProfession(intValue(role.getProfession()))
+                .setExp(longValue(role.getExp()))
+                .setGold(longValue(role.getGold()))
+                .setDiamond(longValue(role.getDiamond()))
+                .setHp(intValue(role.getHp()))
+                .setMaxHp(intValue(role.getMaxHp()))
+                .setMp(intValue(role.getMp()))
+                .setMaxMp(intValue(role.getMaxMp()))
+                .setAttack(intValue(role.getAttack()))
+                .setDefense(intValue(role.getDefense()))
+                .setSpeed(intValue(role.getSpeed()))
+                .setPosition(GameProto.Position.newBuilder()
+                        .setMapId(intValue(role.getMapId()))
+                        .setX(floatValue(role.getX()))
+                        .setY(floatValue(role.getY()))
+                        .setZ(floatValue(role.getZ()))
+                        .setRotation(floatValue(role.getRotation())))
+                .build();
+    }
+
+    private static int intValue(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long longValue(Long value) {
+        return value == null ? 0L : value;
+    }
+
+    private static float floatValue(Float value) {
+        return value == null ? 0f : value;
+    }
+}
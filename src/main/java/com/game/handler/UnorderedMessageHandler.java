@@ -0,0 +1,26 @@
+package com.game.handler;
+
+import com.game.net.Session;
+import com.google.protobuf.Message;
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * 可并发执行的消息处理器
+ * 声明 {@code @GameHandler(ordered = false)} 的处理器必须继承本类：同一连接的多个请求可能在不同业务线程上同时执行，
+ * 而 {@link Session} 的用户/角色绑定、限流状态等字段不是线程安全的，因此本类不向子类提供会话对象。
+ * 子类只应读取请求、访问线程安全的外部资源（如数据库）并回复响应，不要通过 SessionManager 取得会话后修改其状态
+ *
+ * @author Harleysama
+ */
+public abstract class UnorderedMessageHandler<T extends Message> extends AbstractMessageHandler<T> {
+
+    /**
+     * 处理具体的业务逻辑（不提供会话对象）
+     */
+    protected abstract void handle(ChannelHandlerContext ctx, T message) throws Exception;
+
+    @Override
+    protected final void handle(ChannelHandlerContext ctx, Session session, T message) throws Exception {
+        handle(ctx, message);
+    }
+}
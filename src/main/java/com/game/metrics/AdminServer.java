@@ -0,0 +1,139 @@
+package com.game.metrics;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 管理/监控 HTTP 服务
+ * 使用独立的单线程 EventLoopGroup，不占用游戏连接的 IO 线程；GET /metrics 返回 Prometheus 文本格式
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class AdminServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final String host;
+
+    private final int port;
+
+    private final PrometheusExporter exporter;
+
+    private EventLoopGroup group;
+
+    private Channel serverChannel;
+
+    public AdminServer(String host, int port, PrometheusExporter exporter) {
+        this.host = host;
+        this.port = port;
+        this.exporter = exporter;
+    }
+
+    /**
+     * 启动监听
+     */
+    public void start() throws InterruptedException {
+        group = new NioEventLoopGroup(1, new DefaultThreadFactory("game-admin"));
+        MetricsHttpHandler handler = new MetricsHttpHandler();
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast("httpCodec", new HttpServerCodec())
+                                .addLast("httpAggregator", new HttpObjectAggregator(8192))
+                                .addLast("metricsHandler", handler);
+                    }
+                });
+        try {
+            serverChannel = bootstrap.bind(host, port).sync().channel();
+        } catch (InterruptedException | RuntimeException e) {
+            group.shutdownGracefully();
+            throw e;
+        }
+        log.info("监控服务已启动: http://{}:{}/metrics", host, port);
+    }
+
+    /**
+     * 关闭监听
+     */
+    public void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+        }
+        if (group != null) {
+            group.shutdownGracefully();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private final class MetricsHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            String path = request.uri();
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+
+            FullHttpResponse response;
+            if (!HttpMethod.GET.equals(request.method())) {
+                response = textResponse(HttpResponseStatus.METHOD_NOT_ALLOWED, "method not allowed\n");
+            } else if ("/metrics".equals(path)) {
+                response = textResponse(HttpResponseStatus.OK, exporter.scrape());
+            } else {
+                response = textResponse(HttpResponseStatus.NOT_FOUND, "not found\n");
+            }
+
+            boolean keepAlive = HttpUtil.isKeepAlive(request);
+            HttpUtil.setKeepAlive(response, keepAlive);
+            if (keepAlive) {
+                ctx.writeAndFlush(response);
+            } else {
+                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.warn("监控请求处理异常: {}, error={}", ctx.channel().remoteAddress(), cause.getMessage());
+            ctx.close();
+        }
+
+        private FullHttpResponse textResponse(HttpResponseStatus status, String body) {
+            ByteBuf content = Unpooled.copiedBuffer(body, CharsetUtil.UTF_8);
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE);
+            HttpUtil.setContentLength(response, content.readableBytes());
+            return response;
+        }
+    }
+}
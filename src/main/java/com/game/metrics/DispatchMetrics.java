@@ -0,0 +1,151 @@
+package com.game.metrics;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 消息分发指标
+ * 按消息类型统计入站/出站包数与字节数、错误数、排队耗时、处理耗时直方图
+ * <p>
+ * IO 线程和业务线程池线程（FastThreadLocalThread）各自独占一个记录器，写入无锁无 CAS；
+ * 其他线程（如虚拟线程）按线程 id 落到共享的分段记录器上原子累加。
+ * 读取时合并所有记录器，开销只在读取方。每个线程首次记录某个类型时分配计数单元，此后热路径不分配内存
+ * <p>
+ * 字节数均为未压缩的数据体长度，不含帧头
+ *
+ * @author Harleysama
+ */
+public final class DispatchMetrics {
+
+    /**
+     * 共享记录器分段数
+     */
+    private static final int SHARED_STRIPES = 16;
+
+    private static volatile boolean enabled = true;
+
+    /**
+     * 所有已创建的记录器
+     */
+    private static final List<MetricsRecorder> RECORDERS = new CopyOnWriteArrayList<>();
+
+    private static final MetricsRecorder[] SHARED = new MetricsRecorder[SHARED_STRIPES];
+
+    private static final FastThreadLocal<MetricsRecorder> LOCAL = new FastThreadLocal<MetricsRecorder>() {
+        @Override
+        protected MetricsRecorder initialValue() {
+            MetricsRecorder recorder = new MetricsRecorder(false);
+            RECORDERS.add(recorder);
+            return recorder;
+        }
+    };
+
+    static {
+        for (int i = 0; i < SHARED_STRIPES; i++) {
+            SHARED[i] = new MetricsRecorder(true);
+            RECORDERS.add(SHARED[i]);
+        }
+    }
+
+    private DispatchMetrics() {
+    }
+
+    /**
+     * 运行时开关，关闭后所有记录调用直接返回，已有数据保留
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录入站数据包
+     */
+    public static void recordInbound(int messageType, int bytes) {
+        if (enabled) {
+            MetricsRecorder recorder = recorder();
+            recorder.add(messageType, MetricsRecorder.IN_PACKETS, 1);
+            recorder.add(messageType, MetricsRecorder.IN_BYTES, bytes);
+        }
+    }
+
+    /**
+     * 记录出站数据包
+     */
+    public static void recordOutbound(int messageType, int bytes) {
+        if (enabled) {
+            MetricsRecorder recorder = recorder();
+            recorder.add(messageType, MetricsRecorder.OUT_PACKETS, 1);
+            recorder.add(messageType, MetricsRecorder.OUT_BYTES, bytes);
+        }
+    }
+
+    /**
+     * 记录错误（限流、未知类型、未登录、处理异常等）
+     */
+    public static void recordError(int messageType) {
+        if (enabled) {
+            recorder().add(messageType, MetricsRecorder.ERRORS, 1);
+        }
+    }
+
+    /**
+     * 记录一次处理器调用
+     *
+     * @param queueNanos 解码完成到处理器开始执行的耗时
+     * @param execNanos  处理器执行耗时
+     */
+    public static void recordDispatch(int messageType, long queueNanos, long execNanos) {
+        if (enabled) {
+            recorder().recordDispatch(messageType, queueNanos, execNanos);
+        }
+    }
+
+    /**
+     * 合并所有记录器，按消息类型返回当前累计值
+     * 大于等于 {@value MetricsRecorder#MAX_TRACKED_TYPE} 的类型合并在键 -1 下
+     */
+    public static Map<Integer, MessageTypeMetrics> snapshot() {
+        Map<Integer, MessageTypeMetrics> result = new TreeMap<>();
+        long[] sums = new long[MetricsRecorder.CELL_COUNT];
+        for (int slot = 0; slot <= MetricsRecorder.OTHER_SLOT; slot++) {
+            boolean present = false;
+            for (MetricsRecorder recorder : RECORDERS) {
+                AtomicLongArray cells = recorder.peek(slot);
+                if (cells == null) {
+                    continue;
+                }
+                if (!present) {
+                    Arrays.fill(sums, 0);
+                    present = true;
+                }
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += cells.get(i);
+                }
+            }
+            if (present) {
+                int messageType = slot == MetricsRecorder.OTHER_SLOT ? -1 : slot;
+                result.put(messageType, new MessageTypeMetrics(messageType, sums));
+            }
+        }
+        return result;
+    }
+
+    private static MetricsRecorder recorder() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            return LOCAL.get();
+        }
+        return SHARED[(int) (thread.threadId() & (SHARED_STRIPES - 1))];
+    }
+}
@@ -0,0 +1,87 @@
+package com.game.metrics;
+
+/**
+ * 对数-线性直方图的桶划分
+ * 每个 2 的幂区间再均分为 {@value #SUB_BUCKETS} 个子桶，相对误差不超过 25%，
+ * 以微秒为单位时 {@value #BUCKET_COUNT} 个桶覆盖 0 ~ 约 67 秒
+ *
+ * @author Harleysama
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 最大可区分的量级，超过的值计入最后一个桶
+     */
+    private static final int MAX_EXPONENT = 26;
+
+    /**
+     * 桶数量
+     */
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private LatencyHistogram() {
+    }
+
+    /**
+     * 值所在的桶下标
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 桶的下界（含）
+     */
+    public static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * 桶的上界（不含）
+     */
+    public static long upperBound(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowerBound(bucket + 1);
+    }
+
+    /**
+     * 按桶计数估算分位数，返回所在桶的上界
+     *
+     * @param counts   各桶计数
+     * @param quantile 分位 (0, 1]
+     */
+    public static long percentile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKET_COUNT - 1 ? lowerBound(i) : upperBound(i);
+            }
+        }
+        return lowerBound(counts.length - 1);
+    }
+}
@@ -0,0 +1,85 @@
+package com.game.metrics;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * 单个消息类型的指标快照
+ *
+ * @author Harleysama
+ */
+@Getter
+public class MessageTypeMetrics {
+
+    /**
+     * 消息类型，-1 表示超出单独统计范围的类型合计
+     */
+    private final int messageType;
+
+    private final long inPackets;
+
+    private final long inBytes;
+
+    private final long outPackets;
+
+    private final long outBytes;
+
+    private final long errors;
+
+    /**
+     * 处理器调用次数
+     */
+    private final long dispatched;
+
+    /**
+     * 排队耗时合计(纳秒)
+     */
+    private final long queueNanos;
+
+    /**
+     * 处理耗时合计(纳秒)
+     */
+    private final long execNanos;
+
+    /**
+     * 处理耗时直方图(微秒)，桶划分见 {@link LatencyHistogram}
+     */
+    private final long[] histogram;
+
+    MessageTypeMetrics(int messageType, long[] cells) {
+        this.messageType = messageType;
+        this.inPackets = cells[MetricsRecorder.IN_PACKETS];
+        this.inBytes = cells[MetricsRecorder.IN_BYTES];
+        this.outPackets = cells[MetricsRecorder.OUT_PACKETS];
+        this.outBytes = cells[MetricsRecorder.OUT_BYTES];
+        this.errors = cells[MetricsRecorder.ERRORS];
+        this.dispatched = cells[MetricsRecorder.DISPATCHED];
+        this.queueNanos = cells[MetricsRecorder.QUEUE_NANOS];
+        this.execNanos = cells[MetricsRecorder.EXEC_NANOS];
+        this.histogram = Arrays.copyOfRange(cells, MetricsRecorder.HISTOGRAM_BASE, MetricsRecorder.CELL_COUNT);
+    }
+
+    /**
+     * 平均排队耗时(微秒)
+     */
+    public double getMeanQueueMicros() {
+        return dispatched == 0 ? 0 : queueNanos / 1000.0 / dispatched;
+    }
+
+    /**
+     * 平均处理耗时(微秒)
+     */
+    public double getMeanExecMicros() {
+        return dispatched == 0 ? 0 : execNanos / 1000.0 / dispatched;
+    }
+
+    /**
+     * 处理耗时分位数(微秒)，返回所在桶的上界
+     *
+     * @param quantile 分位 (0, 1]
+     */
+    public long percentileMicros(double quantile) {
+        return LatencyHistogram.percentile(histogram, quantile);
+    }
+}
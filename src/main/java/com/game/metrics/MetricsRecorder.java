@@ -0,0 +1,90 @@
+package com.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单线程指标记录器
+ * 独占模式下只有所属线程写入，计数用 get + lazySet 累加，不需要 CAS；
+ * 共享模式（虚拟线程等）下多个线程写入，改用 getAndAdd。读取方只读，合并时求和
+ *
+ * @author Harleysama
+ */
+final class MetricsRecorder {
+
+    static final int IN_PACKETS = 0;
+    static final int IN_BYTES = 1;
+    static final int OUT_PACKETS = 2;
+    static final int OUT_BYTES = 3;
+    static final int ERRORS = 4;
+    static final int DISPATCHED = 5;
+    static final int QUEUE_NANOS = 6;
+    static final int EXEC_NANOS = 7;
+    static final int HISTOGRAM_BASE = 8;
+    static final int CELL_COUNT = HISTOGRAM_BASE + LatencyHistogram.BUCKET_COUNT;
+
+    /**
+     * 单独统计的消息类型上限，更大的类型合并到 {@link #OTHER_SLOT}
+     */
+    static final int MAX_TRACKED_TYPE = 1024;
+
+    static final int OTHER_SLOT = MAX_TRACKED_TYPE;
+
+    /**
+     * 消息类型 -> 计数单元，首次记录该类型时分配
+     */
+    private final AtomicReferenceArray<AtomicLongArray> cellsByType = new AtomicReferenceArray<>(MAX_TRACKED_TYPE + 1);
+
+    private final boolean shared;
+
+    MetricsRecorder(boolean shared) {
+        this.shared = shared;
+    }
+
+    static int slotOf(int messageType) {
+        return messageType >= 0 && messageType < MAX_TRACKED_TYPE ? messageType : OTHER_SLOT;
+    }
+
+    void add(int messageType, int cell, long delta) {
+        AtomicLongArray cells = cells(slotOf(messageType));
+        if (shared) {
+            cells.getAndAdd(cell, delta);
+        } else {
+            cells.lazySet(cell, cells.get(cell) + delta);
+        }
+    }
+
+    void recordDispatch(int messageType, long queueNanos, long execNanos) {
+        AtomicLongArray cells = cells(slotOf(messageType));
+        int bucket = HISTOGRAM_BASE + LatencyHistogram.bucketOf(execNanos / 1000);
+        if (shared) {
+            cells.getAndIncrement(DISPATCHED);
+            cells.getAndAdd(QUEUE_NANOS, queueNanos);
+            cells.getAndAdd(EXEC_NANOS, execNanos);
+            cells.getAndIncrement(bucket);
+        } else {
+            cells.lazySet(DISPATCHED, cells.get(DISPATCHED) + 1);
+            cells.lazySet(QUEUE_NANOS, cells.get(QUEUE_NANOS) + queueNanos);
+            cells.lazySet(EXEC_NANOS, cells.get(EXEC_NANOS) + execNanos);
+            cells.lazySet(bucket, cells.get(bucket) + 1);
+        }
+    }
+
+    /**
+     * 读取某个槽位的计数单元，未记录过时返回 null
+     */
+    AtomicLongArray peek(int slot) {
+        return cellsByType.get(slot);
+    }
+
+    private AtomicLongArray cells(int slot) {
+        AtomicLongArray cells = cellsByType.get(slot);
+        if (cells == null) {
+            cells = new AtomicLongArray(CELL_COUNT);
+            if (!cellsByType.compareAndSet(slot, null, cells)) {
+                cells = cellsByType.get(slot);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.metrics;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分发指标定时输出
+ * 每个周期输出各消息类型在本周期内的包速率、字节数、错误数及处理耗时分位数
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class MetricsReporter {
+
+    private final long intervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 上个周期的快照
+     */
+    private Map<Integer, MessageTypeMetrics> previous = Collections.emptyMap();
+
+    private long previousNanos;
+
+    public MetricsReporter(long intervalSeconds) {
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+    }
+
+    /**
+     * 启动定时输出
+     */
+    public void start() {
+        previous = DispatchMetrics.snapshot();
+        previousNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("game-metrics", true));
+        scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止定时输出
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void report() {
+        try {
+            if (!DispatchMetrics.isEnabled()) {
+                return;
+            }
+            Map<Integer, MessageTypeMetrics> current = DispatchMetrics.snapshot();
+            long now = System.nanoTime();
+            double seconds = Math.max(1, now - previousNanos) / 1e9;
+
+            for (MessageTypeMetrics metrics : current.values()) {
+                MessageTypeMetrics last = previous.get(metrics.getMessageType());
+                long inPackets = metrics.getInPackets() - (last == null ? 0 : last.getInPackets());
+                long outPackets = metrics.getOutPackets() - (last == null ? 0 : last.getOutPackets());
+                long errors = metrics.getErrors() - (last == null ? 0 : last.getErrors());
+                if (inPackets == 0 && outPackets == 0 && errors == 0) {
+                    continue;
+                }
+                long inBytes = metrics.getInBytes() - (last == null ? 0 : last.getInBytes());
+                long outBytes = metrics.getOutBytes() - (last == null ? 0 : last.getOutBytes());
+                long dispatched = metrics.getDispatched() - (last == null ? 0 : last.getDispatched());
+                long queueNanos = metrics.getQueueNanos() - (last == null ? 0 : last.getQueueNanos());
+                long[] histogram = delta(metrics.getHistogram(), last == null ? null : last.getHistogram());
+
+                log.info("消息指标: type={}, 入站={}/s ({}B), 出站={}/s ({}B), 错误={}, 平均排队={}us, p50={}us, p99={}us",
+                        metrics.getMessageType(),
+                        String.format("%.1f", inPackets / seconds), inBytes,
+                        String.format("%.1f", outPackets / seconds), outBytes,
+                        errors,
+                        dispatched == 0 ? 0 : queueNanos / 1000 / dispatched,
+                        LatencyHistogram.percentile(histogram, 0.5),
+                        LatencyHistogram.percentile(histogram, 0.99));
+            }
+
+            previous = current;
+            previousNanos = now;
+        } catch (Exception e) {
+            log.error("输出消息指标失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long[] delta(long[] current, long[] last) {
+        long[] result = current.clone();
+        if (last != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] -= last[i];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,219 @@
+package com.game.metrics;
+
+import com.game.db.MongoManager;
+import com.game.db.MongoPoolStats;
+import com.game.handler.HandlerEntry;
+import com.game.handler.MessageHandlerManager;
+import com.game.net.SessionManager;
+import com.game.protocol.generated.CommonProto;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Prometheus 文本格式导出
+ * 每次抓取时现场采集：在线数、已注册处理器、分发指标、内存池、EventLoop 队列、MongoDB 连接池
+ *
+ * @author Harleysama
+ */
+public class PrometheusExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    /**
+     * 名称 -> 需要统计待处理任务数的线程组
+     */
+    private final Map<String, EventExecutorGroup> eventLoopGroups = new LinkedHashMap<>();
+
+    /**
+     * 登记需要导出待处理任务数的线程组
+     */
+    public void addEventLoopGroup(String name, EventExecutorGroup group) {
+        if (group != null) {
+            eventLoopGroups.put(name, group);
+        }
+    }
+
+    /**
+     * 采集并输出全部指标
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        writeSessions(out);
+        writeHandlers(out);
+        writeDispatch(out);
+        writeAllocator(out);
+        writeEventLoops(out);
+        writeMongoPools(out);
+        return out.toString();
+    }
+
+    private void writeSessions(StringBuilder out) {
+        header(out, "game_online_sessions", "gauge", "当前在线连接数");
+        sample(out, "game_online_sessions", null, SessionManager.getOnlineCount());
+    }
+
+    private void writeHandlers(StringBuilder out) {
+        header(out, "game_handler_info", "gauge", "已注册的消息处理器");
+        for (HandlerEntry entry : MessageHandlerManager.getInstance().getEntries()) {
+            sample(out, "game_handler_info", "type=\"" + typeName(entry.getMessageType())
+                    + "\",handler=\"" + entry.getHandler().getClass().getSimpleName()
+                    + "\",dispatch=\"" + entry.getDispatchMode()
+                    + "\",require_login=\"" + entry.isRequireLogin()
+                    + "\",ordered=\"" + entry.isOrdered() + "\"", 1);
+        }
+    }
+
+    private void writeDispatch(StringBuilder out) {
+        Map<Integer, MessageTypeMetrics> snapshot = DispatchMetrics.snapshot();
+
+        header(out, "game_packets_in_total", "counter", "入站数据包数");
+        snapshot.values().forEach(m -> sample(out, "game_packets_in_total", typeLabel(m), m.getInPackets()));
+        header(out, "game_bytes_in_total", "counter", "入站数据体字节数（未压缩）");
+        snapshot.values().forEach(m -> sample(out, "game_bytes_in_total", typeLabel(m), m.getInBytes()));
+        header(out, "game_packets_out_total", "counter", "出站数据包数");
+        snapshot.values().forEach(m -> sample(out, "game_packets_out_total", typeLabel(m), m.getOutPackets()));
+        header(out, "game_bytes_out_total", "counter", "出站数据体字节数（未压缩）");
+        snapshot.values().forEach(m -> sample(out, "game_bytes_out_total", typeLabel(m), m.getOutBytes()));
+        header(out, "game_errors_total", "counter", "错误数");
+        snapshot.values().forEach(m -> sample(out, "game_errors_total", typeLabel(m), m.getErrors()));
+
+        header(out, "game_dispatch_queue_seconds", "summary", "解码完成到处理器开始执行的耗时");
+        for (MessageTypeMetrics m : snapshot.values()) {
+            sample(out, "game_dispatch_queue_seconds_sum", typeLabel(m), m.getQueueNanos() / 1e9);
+            sample(out, "game_dispatch_queue_seconds_count", typeLabel(m), m.getDispatched());
+        }
+
+        header(out, "game_handler_seconds", "summary", "处理器执行耗时");
+        for (MessageTypeMetrics m : snapshot.values()) {
+            String label = typeLabel(m);
+            for (double quantile : QUANTILES) {
+                sample(out, "game_handler_seconds", label + ",quantile=\"" + quantile + "\"",
+                        m.percentileMicros(quantile) / 1e6);
+            }
+            sample(out, "game_handler_seconds_sum", label, m.getExecNanos() / 1e9);
+            sample(out, "game_handler_seconds_count", label, m.getDispatched());
+        }
+    }
+
+    private void writeAllocator(StringBuilder out) {
+        if (!(ByteBufAllocator.DEFAULT instanceof PooledByteBufAllocator allocator)) {
+            return;
+        }
+        PooledByteBufAllocatorMetric metric = allocator.metric();
+
+        header(out, "netty_allocator_used_bytes", "gauge", "内存池已占用的内存");
+        sample(out, "netty_allocator_used_bytes", "kind=\"direct\"", metric.usedDirectMemory());
+        sample(out, "netty_allocator_used_bytes", "kind=\"heap\"", metric.usedHeapMemory());
+        header(out, "netty_allocator_thread_caches", "gauge", "线程本地缓存数");
+        sample(out, "netty_allocator_thread_caches", null, metric.numThreadLocalCaches());
+
+        List<PoolArenaMetric> direct = metric.directArenas();
+        List<PoolArenaMetric> heap = metric.heapArenas();
+        header(out, "netty_arena_active_allocations", "gauge", "分配区中未释放的分配数");
+        writeArenas(out, "netty_arena_active_allocations", direct, heap, PoolArenaMetric::numActiveAllocations);
+        header(out, "netty_arena_active_bytes", "gauge", "分配区中未释放的字节数");
+        writeArenas(out, "netty_arena_active_bytes", direct, heap, PoolArenaMetric::numActiveBytes);
+        header(out, "netty_arena_allocations_total", "counter", "分配区累计分配数");
+        writeArenas(out, "netty_arena_allocations_total", direct, heap, PoolArenaMetric::numAllocations);
+        header(out, "netty_arena_thread_caches", "gauge", "绑定到分配区的线程缓存数");
+        writeArenas(out, "netty_arena_thread_caches", direct, heap, PoolArenaMetric::numThreadCaches);
+    }
+
+    private void writeArenas(StringBuilder out, String name, List<PoolArenaMetric> direct,
+                             List<PoolArenaMetric> heap, ToDoubleFunction<PoolArenaMetric> value) {
+        for (int i = 0; i < direct.size(); i++) {
+            sample(out, name, "kind=\"direct\",arena=\"" + i + "\"", value.applyAsDouble(direct.get(i)));
+        }
+        for (int i = 0; i < heap.size(); i++) {
+            sample(out, name, "kind=\"heap\",arena=\"" + i + "\"", value.applyAsDouble(heap.get(i)));
+        }
+    }
+
+    private void writeEventLoops(StringBuilder out) {
+        header(out, "netty_eventloop_pending_tasks", "gauge", "EventLoop 待执行任务数");
+        for (Map.Entry<String, EventExecutorGroup> entry : eventLoopGroups.entrySet()) {
+            int index = 0;
+            for (EventExecutor executor : entry.getValue()) {
+                if (executor instanceof SingleThreadEventExecutor loop) {
+                    sample(out, "netty_eventloop_pending_tasks",
+                            "group=\"" + entry.getKey() + "\",loop=\"" + index + "\"", loop.pendingTasks());
+                }
+                index++;
+            }
+        }
+    }
+
+    private void writeMongoPools(StringBuilder out) {
+        MongoManager manager = MongoManager.getInstanceIfPresent();
+        if (manager == null) {
+            return;
+        }
+        Map<String, Collection<MongoPoolStats.Pool>> pools = new LinkedHashMap<>();
+        pools.put("sync", manager.getPoolStats().getPools());
+        pools.put("async", manager.getAsyncPoolStats().getPools());
+        writeMongoPools(out, "mongodb_pool_max_size", "gauge", "连接池上限", pools, MongoPoolStats.Pool::getMaxSize);
+        writeMongoPools(out, "mongodb_pool_open_connections", "gauge", "已建立的连接数", pools,
+                pool -> pool.getOpen().get());
+        writeMongoPools(out, "mongodb_pool_checked_out", "gauge", "已借出的连接数", pools,
+                pool -> pool.getCheckedOut().get());
+        writeMongoPools(out, "mongodb_pool_wait_queue", "gauge", "等待借出连接的请求数", pools,
+                pool -> pool.getWaiting().get());
+        writeMongoPools(out, "mongodb_pool_checkout_failures_total", "counter", "借出连接失败次数", pools,
+                pool -> pool.getCheckOutFailed().get());
+    }
+
+    private void writeMongoPools(StringBuilder out, String name, String type, String help,
+                                 Map<String, Collection<MongoPoolStats.Pool>> pools,
+                                 ToDoubleFunction<MongoPoolStats.Pool> value) {
+        header(out, name, type, help);
+        for (Map.Entry<String, Collection<MongoPoolStats.Pool>> entry : pools.entrySet()) {
+            for (MongoPoolStats.Pool pool : entry.getValue()) {
+                sample(out, name, "client=\"" + entry.getKey() + "\",server=\""
+                        + escape(pool.getAddress().toString()) + "\"", value.applyAsDouble(pool));
+            }
+        }
+    }
+
+    private static String typeLabel(MessageTypeMetrics metrics) {
+        return "type=\"" + (metrics.getMessageType() < 0 ? "OTHER" : typeName(metrics.getMessageType())) + "\"";
+    }
+
+    private static String typeName(int messageType) {
+        CommonProto.MessageType type = CommonProto.MessageType.forNumber(messageType);
+        return type != null ? type.name() : String.valueOf(messageType);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
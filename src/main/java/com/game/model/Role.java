@@ -1,15 +1,51 @@
 package com.game.model;
 
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 /**
  * 角色实体
+ * <p>
+ * setter 会在 {@link #getChangedFields()} 中记录被修改的字段，RoleDao 据此只写入变化的字段；
+ * addExp / addGold / addDiamond 记录增量，保存时转换为 $inc。从数据库加载或保存后调用 {@link #clearChanges()}
  *
  * @author Harleysama
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 public class Role {
 
+    // ========== 字段变化标记 ==========
+
+    public static final long USER_ID = 1L << 0;
+    public static final long NAME = 1L << 1;
+    public static final long LEVEL = 1L << 2;
+    public static final long PROFESSION = 1L << 3;
+    public static final long EXP = 1L << 4;
+    public static final long GOLD = 1L << 5;
+    public static final long DIAMOND = 1L << 6;
+    public static final long HP = 1L << 7;
+    public static final long MAX_HP = 1L << 8;
+    public static final long MP = 1L << 9;
+    public static final long MAX_MP = 1L << 10;
+    public static final long ATTACK = 1L << 11;
+    public static final long DEFENSE = 1L << 12;
+    public static final long SPEED = 1L << 13;
+    public static final long LAST_LOGIN_TIME = 1L << 14;
+    public static final long MAP_ID = 1L << 15;
+    public static final long X = 1L << 16;
+    public static final long Y = 1L << 17;
+    public static final long Z = 1L << 18;
+    public static final long ROTATION = 1L << 19;
+
+    /**
+     * 全部可写字段
+     */
+    public static final long ALL_FIELDS = (1L << 20) - 1;
+
     /**
      * 角色ID
      */
@@ -116,4 +152,218 @@ public class Role {
      * 旋转角度
      */
     private Float rotation = 0f;
+
+    /**
+     * 自上次保存以来被修改的字段
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long changedFields;
+
+    /**
+     * 自上次保存以来的经验值增量（经验值被直接设置时不再使用）
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long expDelta;
+
+    /**
+     * 自上次保存以来的金币增量
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long goldDelta;
+
+    /**
+     * 自上次保存以来的钻石增量
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long diamondDelta;
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+        changedFields |= USER_ID;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        changedFields |= NAME;
+    }
+
+    public void setLevel(Integer level) {
+        this.level = level;
+        changedFields |= LEVEL;
+    }
+
+    public void setProfession(Integer profession) {
+        this.profession = profession;
+        changedFields |= PROFESSION;
+    }
+
+    public void setExp(Long exp) {
+        this.exp = exp;
+        changedFields |= EXP;
+    }
+
+    public void setGold(Long gold) {
+        this.gold = gold;
+        changedFields |= GOLD;
+    }
+
+    public void setDiamond(Long diamond) {
+        this.diamond = diamond;
+        changedFields |= DIAMOND;
+    }
+
+    public void setHp(Integer hp) {
+        this.hp = hp;
+        changedFields |= HP;
+    }
+
+    public void setMaxHp(Integer maxHp) {
+        this.maxHp = maxHp;
+        changedFields |= MAX_HP;
+    }
+
+    public void setMp(Integer mp) {
+        this.mp = mp;
+        changedFields |= MP;
+    }
+
+    public void setMaxMp(Integer maxMp) {
+        this.maxMp = maxMp;
+        changedFields |= MAX_MP;
+    }
+
+    public void setAttack(Integer attack) {
+        this.attack = attack;
+        changedFields |= ATTACK;
+    }
+
+    public void setDefense(Integer defense) {
+        this.defense = defense;
+        changedFields |= DEFENSE;
+    }
+
+    public void setSpeed(Integer speed) {
+        this.speed = speed;
+        changedFields |= SPEED;
+    }
+
+    public void setLastLoginTime(Long lastLoginTime) {
+        this.lastLoginTime = lastLoginTime;
+        changedFields |= LAST_LOGIN_TIME;
+    }
+
+    public void setMapId(Integer mapId) {
+        this.mapId = mapId;
+        changedFields |= MAP_ID;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+        changedFields |= X;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+        changedFields |= Y;
+    }
+
+    public void setZ(Float z) {
+        this.z = z;
+        changedFields |= Z;
+    }
+
+    public void setRotation(Float rotation) {
+        this.rotation = rotation;
+        changedFields |= ROTATION;
+    }
+
+    /**
+     * 增减经验值，未被直接设置时保存为 $inc
+     */
+    public void addExp(long delta) {
+        this.exp = (exp == null ? 0L : exp) + delta;
+        expDelta += delta;
+    }
+
+    /**
+     * 增减金币，未被直接设置时保存为 $inc
+     */
+    public void addGold(long delta) {
+        this.gold = (gold == null ? 0L : gold) + delta;
+        goldDelta += delta;
+    }
+
+    /**
+     * 增减钻石，未被直接设置时保存为 $inc
+     */
+    public void addDiamond(long delta) {
+        this.diamond = (diamond == null ? 0L : diamond) + delta;
+        diamondDelta += delta;
+    }
+
+    /**
+     * 是否有未保存的修改
+     */
+    public boolean hasChanges() {
+        return changedFields != 0 || expDelta != 0 || goldDelta != 0 || diamondDelta != 0;
+    }
+
+    /**
+     * 字段是否被直接设置过
+     */
+    public boolean isChanged(long field) {
+        return (changedFields & field) != 0;
+    }
+
+    /**
+     * 待保存的经验值增量，字段被直接设置时返回 0
+     */
+    public long getPendingExpDelta() {
+        return isChanged(EXP) ? 0 : expDelta;
+    }
+
+    /**
+     * 待保存的金币增量，字段被直接设置时返回 0
+     */
+    public long getPendingGoldDelta() {
+        return isChanged(GOLD) ? 0 : goldDelta;
+    }
+
+    /**
+     * 待保存的钻石增量，字段被直接设置时返回 0
+     */
+    public long getPendingDiamondDelta() {
+        return isChanged(DIAMOND) ? 0 : diamondDelta;
+    }
+
+    /**
+     * 清除修改记录（加载或保存后调用）
+     */
+    public void clearChanges() {
+        changedFields = 0;
+        expDelta = 0;
+        goldDelta = 0;
+        diamondDelta = 0;
+    }
+
+    /**
+     * 标记所有字段为已修改，下次保存写入完整状态（保存失败、无法确认增量是否已生效时使用）
+     */
+    public void markAllChanged() {
+        changedFields = ALL_FIELDS;
+        expDelta = 0;
+        goldDelta = 0;
+        diamondDelta = 0;
+    }
 }
@@ -0,0 +1,28 @@
+package com.game.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * 已编码的帧
+ * 广播时帧只编码一次，各会话持有其 retainedDuplicate；
+ * 连接不可写时以此形式进入出站队列，保留消息类型以便按策略丢弃
+ *
+ * @author Harleysama
+ */
+public class EncodedFrame extends DefaultByteBufHolder {
+
+    /**
+     * 消息类型
+     */
+    private final int messageType;
+
+    public EncodedFrame(int messageType, ByteBuf frame) {
+        super(frame);
+        this.messageType = messageType;
+    }
+
+    public int getMessageType() {
+        return messageType;
+    }
+}
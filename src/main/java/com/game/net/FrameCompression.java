@@ -0,0 +1,94 @@
+package com.game.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 帧压缩工具
+ * Deflater/Inflater 按线程缓存，每帧只需 reset() 而无需重新分配本地 zlib 状态。
+ * 只应在 EventLoop 线程上调用：帧编解码器和 {@link Session} 的批量帧本就运行在 EventLoop 上，
+ * {@link SessionManager#broadcast} 需要压缩时也切换到 EventLoop 编码。这样每个 EventLoop 各持有一份，
+ * 线程退出时经 onRemoval 调用 end() 释放；若在业务线程或虚拟线程上调用，每个线程都会分配一份且不会被释放
+ *
+ * @author Harleysama
+ */
+public final class FrameCompression {
+
+    /**
+     * 每次扩容输出缓冲区的最小字节数
+     */
+    private static final int MIN_GROW = 256;
+
+    private static final FastThreadLocal<Deflater> DEFLATER = new FastThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+
+        @Override
+        protected void onRemoval(Deflater deflater) {
+            deflater.end();
+        }
+    };
+
+    private static final FastThreadLocal<Inflater> INFLATER = new FastThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+
+        @Override
+        protected void onRemoval(Inflater inflater) {
+            inflater.end();
+        }
+    };
+
+    private FrameCompression() {
+    }
+
+    /**
+     * 压缩 src 的可读字节并追加到 dst
+     */
+    public static void deflate(ByteBuf src, ByteBuf dst) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(src.nioBuffer());
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            dst.ensureWritable(Math.max(MIN_GROW, src.readableBytes() >>> 2));
+            ByteBuffer output = dst.nioBuffer(dst.writerIndex(), dst.writableBytes());
+            int written = deflater.deflate(output);
+            dst.writerIndex(dst.writerIndex() + written);
+        }
+    }
+
+    /**
+     * 解压 src 的可读字节并追加到 dst
+     *
+     * @param expectedLength 原始长度，解压结果不符时抛出异常
+     */
+    public static void inflate(ByteBuf src, ByteBuf dst, int expectedLength) {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(src.nioBuffer());
+
+        dst.ensureWritable(expectedLength);
+        ByteBuffer output = dst.nioBuffer(dst.writerIndex(), expectedLength);
+        try {
+            int inflated = inflater.inflate(output);
+            if (inflated != expectedLength || !inflater.finished()) {
+                throw new DecoderException("压缩帧长度不符: expected=" + expectedLength + ", actual=" + inflated);
+            }
+            dst.writerIndex(dst.writerIndex() + inflated);
+        } catch (DataFormatException e) {
+            throw new DecoderException("压缩帧数据损坏: " + e.getMessage(), e);
+        }
+    }
+}
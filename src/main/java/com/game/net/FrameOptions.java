@@ -0,0 +1,255 @@
+package com.game.net;
+
+import com.game.protocol.generated.CommonProto;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 帧选项
+ * 握手时协商、按连接保存在 Channel 属性上，帧编解码器据此决定帧格式
+ * <p>
+ * 帧头中消息类型字段的高字节用作标志位：
+ * <pre>
+ * [数据长度(4字节)][标志(1字节) | 消息类型(3字节)][数据体]
+ * </pre>
+ * 紧凑帧头模式下长度和类型均为 varint，类型与标志合并为 (消息类型 &lt;&lt; 3) | 标志：
+ * <pre>
+ * [数据长度(varint)][消息类型 | 标志(varint)][数据体]
+ * </pre>
+ * 带序列号扩展的帧在帧头之后、数据体之前写入 [序列号(varint)]，计入数据长度；
+ * 压缩帧的数据体为 [原始长度(4字节)][压缩数据]
+ * <p>
+ * 入站方向由帧解码器在握手帧之后立即切换（见 {@link PacketFrameDecoder}），出站方向在握手响应之后切换；
+ * 每个连接只协商一次
+ *
+ * @author Harleysama
+ */
+@Slf4j
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class FrameOptions {
+
+    public static final AttributeKey<FrameOptions> KEY = AttributeKey.valueOf("frameOptions");
+
+    /**
+     * 帧解码器在第一个握手帧处协商出的帧选项，由握手处理器取走（取走后为空，重复握手据此拒绝）
+     */
+    public static final AttributeKey<FrameOptions> NEGOTIATED_KEY = AttributeKey.valueOf("negotiatedFrameOptions");
+
+    /**
+     * 管道中帧解码器的名称
+     */
+    public static final String DECODER_NAME = "frameDecoder";
+
+    /**
+     * 默认选项：不压缩
+     */
+    public static final FrameOptions DEFAULT = new FrameOptions(
+            CommonProto.CompressionType.COMPRESSION_NONE, 0, CommonProto.FrameHeaderMode.HEADER_FIXED, false);
+
+    /**
+     * 消息类型掩码
+     */
+    public static final int TYPE_MASK = 0x00FF_FFFF;
+
+    /**
+     * 标志位：数据体已压缩
+     */
+    public static final int FLAG_COMPRESSED = 0x4000_0000;
+
+    /**
+     * 标志位：帧头后带有请求序列号扩展
+     */
+    public static final int FLAG_SEQUENCE = 0x2000_0000;
+
+    /**
+     * 全部可用标志位
+     */
+    public static final int FLAG_MASK = 0x7000_0000;
+
+    /**
+     * 紧凑帧头中标志位占用的低位数
+     */
+    private static final int COMPACT_FLAG_BITS = 3;
+
+    /**
+     * 服务端是否允许压缩
+     */
+    private static volatile boolean compressionEnabled = false;
+
+    /**
+     * 服务端压缩阈值(字节)
+     */
+    private static volatile int serverCompressThreshold = 512;
+
+    /**
+     * 服务端是否允许紧凑帧头
+     */
+    private static volatile boolean varintHeaderEnabled = false;
+
+    /**
+     * 服务端是否允许下发批量帧
+     */
+    private static volatile boolean serverBatchEnabled = false;
+
+    /**
+     * 压缩算法
+     */
+    private final CommonProto.CompressionType compression;
+
+    /**
+     * 数据体达到该字节数时才压缩
+     */
+    private final int compressThreshold;
+
+    /**
+     * 帧头格式
+     */
+    private final CommonProto.FrameHeaderMode headerMode;
+
+    /**
+     * 是否可以向客户端下发批量帧
+     */
+    private final boolean batchEnabled;
+
+    public FrameOptions(CommonProto.CompressionType compression, int compressThreshold,
+                        CommonProto.FrameHeaderMode headerMode, boolean batchEnabled) {
+        this.compression = compression;
+        this.compressThreshold = compressThreshold;
+        this.headerMode = headerMode;
+        this.batchEnabled = batchEnabled;
+    }
+
+    /**
+     * 设置服务端帧选项配置（服务器启动时调用）
+     */
+    public static void configure(boolean compression, int threshold, boolean varintHeader, boolean batch) {
+        compressionEnabled = compression;
+        serverCompressThreshold = threshold;
+        varintHeaderEnabled = varintHeader;
+        serverBatchEnabled = batch;
+    }
+
+    /**
+     * 根据客户端握手声明的能力协商帧选项
+     */
+    public static FrameOptions negotiate(CommonProto.Handshake handshake) {
+        boolean deflate = compressionEnabled
+                && handshake.getCompressionsList().contains(CommonProto.CompressionType.COMPRESSION_DEFLATE);
+        boolean varint = varintHeaderEnabled
+                && handshake.getHeaderModesList().contains(CommonProto.FrameHeaderMode.HEADER_VARINT);
+        boolean batch = serverBatchEnabled && handshake.getBatchSupported();
+        if (!deflate && !varint && !batch) {
+            return DEFAULT;
+        }
+        return new FrameOptions(
+                deflate ? CommonProto.CompressionType.COMPRESSION_DEFLATE : CommonProto.CompressionType.COMPRESSION_NONE,
+                deflate ? serverCompressThreshold : 0,
+                varint ? CommonProto.FrameHeaderMode.HEADER_VARINT : CommonProto.FrameHeaderMode.HEADER_FIXED,
+                batch);
+    }
+
+    /**
+     * 获取连接的帧选项
+     */
+    public static FrameOptions of(Channel channel) {
+        FrameOptions options = channel.attr(KEY).get();
+        return options == null ? DEFAULT : options;
+    }
+
+    /**
+     * 为连接启用新的出站帧选项
+     * 在 EventLoop 上按提交顺序生效，因此此前已提交的写出（如握手响应）仍使用旧格式；
+     * 入站解码器已在握手帧处切换，这里不再改动
+     */
+    public static void apply(Channel channel, FrameOptions options) {
+        if (channel.eventLoop().inEventLoop()) {
+            apply0(channel, options);
+        } else {
+            channel.eventLoop().execute(() -> apply0(channel, options));
+        }
+    }
+
+    private static void apply0(Channel channel, FrameOptions options) {
+        channel.attr(KEY).set(options);
+        log.debug("帧选项生效: channel={}, options={}", channel.id(), options);
+    }
+
+    /**
+     * 是否启用压缩
+     */
+    public boolean isCompressionEnabled() {
+        return compression == CommonProto.CompressionType.COMPRESSION_DEFLATE;
+    }
+
+    /**
+     * 指定长度的数据体是否需要压缩
+     */
+    public boolean shouldCompress(int dataLength) {
+        return isCompressionEnabled() && dataLength >= compressThreshold;
+    }
+
+    /**
+     * 是否使用紧凑帧头
+     */
+    public boolean isVarintHeader() {
+        return headerMode == CommonProto.FrameHeaderMode.HEADER_VARINT;
+    }
+
+    /**
+     * 帧头字节数
+     *
+     * @param dataLength 数据体长度
+     * @param typeField  消息类型及标志位
+     */
+    public int headerSize(int dataLength, int typeField) {
+        if (!isVarintHeader()) {
+            return PacketFrameEncoder.HEADER_SIZE;
+        }
+        return Varint.computeSize(dataLength) + Varint.computeSize(toCompactType(typeField));
+    }
+
+    /**
+     * 写入帧头
+     *
+     * @param dataLength 数据体长度
+     * @param typeField  消息类型及标志位
+     */
+    public void writeHeader(ByteBuf out, int dataLength, int typeField) {
+        if (isVarintHeader()) {
+            Varint.write(out, dataLength);
+            Varint.write(out, toCompactType(typeField));
+        } else {
+            out.writeInt(dataLength);
+            out.writeInt(typeField);
+        }
+    }
+
+    /**
+     * 定长帧头的类型字段 -> 紧凑帧头的类型字段
+     */
+    public static int toCompactType(int typeField) {
+        return (typeField & TYPE_MASK) << COMPACT_FLAG_BITS | (typeField & FLAG_MASK) >>> (31 - COMPACT_FLAG_BITS);
+    }
+
+    /**
+     * 紧凑帧头的类型字段是否在消息类型范围内
+     */
+    public static boolean isValidCompactType(int compactType) {
+        return compactType >>> COMPACT_FLAG_BITS <= TYPE_MASK;
+    }
+
+    /**
+     * 紧凑帧头的类型字段 -> 定长帧头的类型字段
+     */
+    public static int fromCompactType(int compactType) {
+        return compactType >>> COMPACT_FLAG_BITS
+                | (compactType & ((1 << COMPACT_FLAG_BITS) - 1)) << (31 - COMPACT_FLAG_BITS);
+    }
+}
@@ -1,17 +1,36 @@
 package com.game.net;
 
-import com.game.handler.MessageHandler;
+import com.game.handler.DispatchMode;
+import com.game.handler.ExecutionMode;
+import com.game.handler.HandlerEntry;
 import com.game.handler.MessageHandlerManager;
+import com.game.metrics.DispatchMetrics;
 import com.game.protocol.generated.CommonProto;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.handler.timeout.IdleState;
-import io.netty.handler.timeout.IdleStateEvent;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 游戏服务器主处理器
  * 处理所有客户端消息的入口
+ * <p>
+ * 数据包在 channelRead0 返回后由 SimpleChannelInboundHandler 自动释放，
+ * 零拷贝模式下持有的缓冲区切片随之归还内存池
+ * <p>
+ * 声明为 {@link DispatchMode#BUSINESS} 的处理器按 {@link ExecutionMode} 执行：
+ * INLINE 直接在IO线程执行；PLATFORM / VIRTUAL 通过会话邮箱投递到业务线程池或虚拟线程，
+ * 同一连接的消息默认按接收顺序串行处理。处理器返回未完成的 CompletionStage 时（见 {@link com.game.handler.AsyncMessageHandler}），
+ * 会话邮箱保持占用直到其完成，其间到达的消息（包括 IO 线程处理器和 INLINE 模式下的消息）排队等待；
+ * INLINE 模式下邮箱只在此时启用，排队的消息回到连接所属的 EventLoop 上执行；声明 ordered = false 的业务处理器收到携带序列号的请求时，
+ * 直接提交到业务执行器并发执行（每个连接同时执行的数量不超过邮箱容量），响应可能乱序返回，由客户端按序列号匹配；
+ * 这类处理器继承 {@link com.game.handler.UnorderedMessageHandler}，拿不到会话对象，不会并发修改会话状态
+ * <p>
+ * 启用分发指标时（见 {@link DispatchMetrics}），在进入本处理器时打点，记录排队耗时和处理耗时
  *
  * @author Harleysama
  */
@@ -20,19 +39,73 @@ public class GameServerHandler extends SimpleChannelInboundHandler<ProtocolPacke
 
     private final MessageHandlerManager handlerManager;
 
-    public GameServerHandler() {
+    /**
+     * 业务处理器执行模式
+     */
+    private final ExecutionMode executionMode;
+
+    /**
+     * 本连接的会话邮箱，加入 pipeline 时创建（INLINE 模式下执行器为连接所属的 EventLoop）
+     */
+    private SessionMailbox mailbox;
+
+    /**
+     * 会话邮箱容量，同时也是本连接并发执行的无序请求上限
+     */
+    private final int mailboxCapacity;
+
+    /**
+     * 本连接已提交、尚未执行完的无序请求数
+     */
+    private final AtomicInteger unorderedInFlight = new AtomicInteger();
+
+    /**
+     * 业务执行器（INLINE 模式下为 null）
+     */
+    private final Executor businessExecutor;
+
+    /**
+     * 数据包限流器（未启用时为 null）
+     */
+    private final PacketRateLimiter rateLimiter;
+
+    public GameServerHandler(ExecutionMode executionMode, Executor businessExecutor, PacketRateLimiter rateLimiter,
+                             int mailboxCapacity) {
         this.handlerManager = MessageHandlerManager.getInstance();
+        this.executionMode = executionMode;
+        this.rateLimiter = rateLimiter;
+        this.businessExecutor = executionMode == ExecutionMode.INLINE ? null : businessExecutor;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        SessionMailbox.RejectionHandler onRejected = message -> rejectPacket(ctx, (ProtocolPacket) message);
+        if (executionMode == ExecutionMode.INLINE) {
+            mailbox = new SessionMailbox(ctx.executor(), SessionMailbox.DEFAULT_TASKS_PER_RUN, mailboxCapacity,
+                    onRejected);
+        } else if (executionMode == ExecutionMode.VIRTUAL) {
+            // 每条消息一个虚拟线程（许可耗尽时由当前虚拟线程继续执行）
+            mailbox = new SessionMailbox(businessExecutor, 1, mailboxCapacity, onRejected);
+        } else {
+            mailbox = new SessionMailbox(businessExecutor, SessionMailbox.DEFAULT_TASKS_PER_RUN, mailboxCapacity,
+                    onRejected);
+        }
+        super.handlerAdded(ctx);
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         log.info("客户端连接: {}", ctx.channel().remoteAddress());
-        // 可以在这里初始化会话信息
+        // 创建会话并登记到空闲回收器
+        SessionManager.addSession(ctx.channel());
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         log.info("客户端断开: {}", ctx.channel().remoteAddress());
+        // 丢弃尚未执行的消息并释放其缓冲区
+        mailbox.close();
         // 清理会话信息
         SessionManager.removeSession(ctx.channel());
     }
@@ -41,34 +114,140 @@ public class GameServerHandler extends SimpleChannelInboundHandler<ProtocolPacke
     protected void channelRead0(ChannelHandlerContext ctx, ProtocolPacket packet) throws Exception {
         log.debug("收到消息: type={}", packet.getMessageType());
 
-        // 获取对应的消息处理器
-        MessageHandler handler = handlerManager.getHandler(packet.getMessageType());
-        if (handler == null) {
+        long receivedNanos = 0;
+        if (DispatchMetrics.isEnabled()) {
+            receivedNanos = System.nanoTime();
+            DispatchMetrics.recordInbound(packet.getMessageType(), packet.getDataLength());
+        }
+
+        Session session = SessionManager.getSession(ctx.channel());
+        if (session != null) {
+            // 任何数据包都视为活跃，空闲回收器据此判断超时
+            session.updateActiveTime();
+        }
+
+        // 限流检查（在协议解析之前）
+        if (rateLimiter != null) {
+            if (session != null && !rateLimiter.tryAcquire(session, packet.getMessageType())) {
+                log.debug("消息被限流: type={}, remote={}", packet.getMessageType(), ctx.channel().remoteAddress());
+                DispatchMetrics.recordError(packet.getMessageType());
+                if (!rateLimiter.isSilentDrop()) {
+                    sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.RATE_LIMIT, "请求过于频繁");
+                }
+                return;
+            }
+        }
+
+        // 获取对应的消息处理器（分发表数组下标访问）
+        HandlerEntry entry = handlerManager.getEntry(packet.getMessageType());
+        if (entry == null) {
             log.warn("未找到消息处理器: type={}", packet.getMessageType());
-            sendError(ctx, CommonProto.ErrorCode.UNKNOWN_ERROR, "未知的消息类型");
+            DispatchMetrics.recordError(packet.getMessageType());
+            sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.UNKNOWN_ERROR, "未知的消息类型");
+            return;
+        }
+
+        // 轻量处理器直接在IO线程执行；邮箱中仍有排队消息或等待异步处理完成时也必须排队，保证顺序
+        boolean ioThread = executionMode == ExecutionMode.INLINE || entry.getDispatchMode() == DispatchMode.IO_THREAD;
+        if (ioThread && mailbox.isIdle()) {
+            mailbox.hold(invokeHandler(ctx, entry, packet, receivedNanos));
+            return;
+        }
+
+        // 不要求顺序的业务处理器：携带序列号的请求跳过邮箱直接并发执行
+        if (businessExecutor != null && !entry.isOrdered() && packet.getSequence() != 0
+                && entry.getDispatchMode() == DispatchMode.BUSINESS) {
+            executeUnordered(ctx, entry, packet, receivedNanos);
+            return;
+        }
+
+        // 投递到业务线程池，数据包由邮箱在处理完成（或被丢弃）后释放；
+        // 队列已满或线程池拒绝时邮箱已通过 rejectPacket 回复错误
+        packet.retain();
+        long queuedAt = receivedNanos;
+        mailbox.offerAsync(() -> invokeHandler(ctx, entry, packet, queuedAt), packet);
+    }
+
+    /**
+     * 拒绝数据包（会话邮箱已满、无序请求超出上限或业务线程池拒绝）时回复服务器繁忙
+     */
+    private void rejectPacket(ChannelHandlerContext ctx, ProtocolPacket packet) {
+        log.warn("拒绝消息: type={}, remote={}, pending={}, unorderedInFlight={}", packet.getMessageType(),
+                ctx.channel().remoteAddress(), mailbox.pendingTasks(), unorderedInFlight.get());
+        DispatchMetrics.recordError(packet.getMessageType());
+        sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.SERVER_ERROR, "服务器繁忙");
+    }
+
+    /**
+     * 直接提交到业务执行器，不经过会话邮箱
+     * 业务线程池的队列可能无界，按连接限制未执行完的请求数，超出时与邮箱已满一样回复服务器繁忙
+     */
+    private void executeUnordered(ChannelHandlerContext ctx, HandlerEntry entry, ProtocolPacket packet,
+                                  long receivedNanos) {
+        if (unorderedInFlight.incrementAndGet() > mailboxCapacity) {
+            unorderedInFlight.decrementAndGet();
+            rejectPacket(ctx, packet);
             return;
         }
+        packet.retain();
+        try {
+            businessExecutor.execute(() -> {
+                try {
+                    invokeHandler(ctx, entry, packet, receivedNanos);
+                } finally {
+                    unorderedInFlight.decrementAndGet();
+                    packet.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            unorderedInFlight.decrementAndGet();
+            packet.release();
+            log.warn("业务线程池拒绝任务: type={}, remote={}", packet.getMessageType(), ctx.channel().remoteAddress());
+            DispatchMetrics.recordError(packet.getMessageType());
+            sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.SERVER_ERROR, "服务器繁忙");
+        }
+    }
 
+    /**
+     * 调用消息处理器
+     * 登录检查在执行时进行，读取的是前序消息（如同一批到达的 LOGIN）处理完成后的会话状态
+     *
+     * @param receivedNanos 进入本处理器时的打点，0 表示未启用指标
+     * @return 处理器仍在异步处理时返回其完成通知，否则为 null
+     */
+    private CompletionStage<?> invokeHandler(ChannelHandlerContext ctx, HandlerEntry entry, ProtocolPacket packet,
+                               long receivedNanos) {
+        if (entry.isRequireLogin()) {
+            Session session = SessionManager.getSession(ctx.channel());
+            if (session == null || !session.isLogged()) {
+                log.warn("未登录会话发送需登录的消息: type={}", packet.getMessageType());
+                DispatchMetrics.recordError(packet.getMessageType());
+                sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.AUTH_FAILED, "请先登录");
+                return null;
+            }
+        }
+
+        long startNanos = receivedNanos != 0 ? System.nanoTime() : 0;
         try {
             // 处理消息
-            handler.handle(ctx, packet);
+            return entry.getHandler().handle(ctx, packet);
         } catch (Exception e) {
             log.error("消息处理异常: type={}, error={}", packet.getMessageType(), e.getMessage(), e);
-            sendError(ctx, CommonProto.ErrorCode.SERVER_ERROR, "服务器内部错误");
+            DispatchMetrics.recordError(packet.getMessageType());
+            sendError(ctx, packet.getSequence(), CommonProto.ErrorCode.SERVER_ERROR, "服务器内部错误");
+            return null;
+        } finally {
+            if (receivedNanos != 0) {
+                DispatchMetrics.recordDispatch(packet.getMessageType(),
+                        startNanos - receivedNanos, System.nanoTime() - startNanos);
+            }
         }
     }
 
     @Override
-    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-        if (evt instanceof IdleStateEvent) {
-            IdleStateEvent event = (IdleStateEvent) evt;
-            if (event.state() == IdleState.READER_IDLE) {
-                log.warn("客户端读超时，关闭连接: {}", ctx.channel().remoteAddress());
-                ctx.close();
-            }
-        } else {
-            super.userEventTriggered(ctx, evt);
-        }
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        SessionManager.onWritabilityChanged(ctx.channel());
+        super.channelWritabilityChanged(ctx);
     }
 
     @Override
@@ -78,9 +257,9 @@ public class GameServerHandler extends SimpleChannelInboundHandler<ProtocolPacke
     }
 
     /**
-     * 发送错误消息
+     * 发送错误消息，回传请求的序列号
      */
-    private void sendError(ChannelHandlerContext ctx, CommonProto.ErrorCode code, String message) {
+    private void sendError(ChannelHandlerContext ctx, int sequence, CommonProto.ErrorCode code, String message) {
         CommonProto.Error error = CommonProto.Error.newBuilder()
                 .setCode(code)
                 .setMessage(message)
@@ -90,7 +269,8 @@ public class GameServerHandler extends SimpleChannelInboundHandler<ProtocolPacke
                 CommonProto.MessageType.ERROR_VALUE,
                 error
         );
+        packet.setSequence(sequence);
 
-        ctx.writeAndFlush(packet);
+        SessionManager.send(ctx.channel(), packet);
     }
 }
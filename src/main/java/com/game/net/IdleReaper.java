@@ -0,0 +1,213 @@
+package com.game.net;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 空闲连接回收器
+ * 替代每个连接一个的 IdleStateHandler：每个 EventLoop 一个时间轮分片，整个分片只有一个定时任务
+ * <p>
+ * 会话按 {@code lastActiveTime + 超时时间} 放入对应刻度的槽位。收到消息只更新 lastActiveTime，
+ * 不操作时间轮；刻度到达时再检查，仍活跃的会话按新的截止时间重新入轮，已超时的按批关闭。
+ * 分片的所有操作都在所属 EventLoop 上执行，无需加锁
+ * <p>
+ * 每个刻度还会检查出站队列正在溢出的会话（见 {@link Session#checkOverflow}），
+ * 对端停止读取后即使不再有新消息写入，持续溢出的连接也会被断开
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class IdleReaper {
+
+    /**
+     * 空闲超时(毫秒)
+     */
+    private final long timeoutMillis;
+
+    /**
+     * 时间轮刻度(毫秒)
+     */
+    private final long tickMillis;
+
+    /**
+     * 每个分片每个刻度最多关闭的连接数，超出部分顺延到下一刻度
+     */
+    private final int closeBatchSize;
+
+    /**
+     * EventLoop -> 时间轮分片
+     */
+    private final Map<EventLoop, Wheel> wheels = new ConcurrentHashMap<>();
+
+    /**
+     * 累计回收的连接数
+     */
+    private final LongAdder reapedCount = new LongAdder();
+
+    public IdleReaper(long timeoutMillis, long tickMillis, int closeBatchSize) {
+        this.timeoutMillis = timeoutMillis;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.closeBatchSize = Math.max(1, closeBatchSize);
+    }
+
+    /**
+     * 登记会话，可在任意线程调用
+     */
+    public void register(Session session) {
+        EventLoop loop = session.getChannel().eventLoop();
+        Wheel wheel = wheels.computeIfAbsent(loop, Wheel::new);
+        if (loop.inEventLoop()) {
+            wheel.add(session);
+        } else {
+            loop.execute(() -> wheel.add(session));
+        }
+    }
+
+    /**
+     * 登记出站队列开始溢出的会话，每个刻度检查一次直到恢复或断开（必须在会话所属 EventLoop 上调用）
+     */
+    public void watchOverflow(Session session) {
+        EventLoop loop = session.getChannel().eventLoop();
+        wheels.computeIfAbsent(loop, Wheel::new).overflowing.add(session);
+    }
+
+    /**
+     * 停止所有分片的定时任务
+     */
+    public void stop() {
+        for (Wheel wheel : wheels.values()) {
+            wheel.future.cancel(false);
+        }
+        wheels.clear();
+    }
+
+    /**
+     * 累计回收的连接数
+     */
+    public long getReapedCount() {
+        return reapedCount.sum();
+    }
+
+    /**
+     * 时间轮中登记的会话数（含已断开、尚未被清理的会话）
+     */
+    public int getTrackedCount() {
+        int count = 0;
+        for (Wheel wheel : wheels.values()) {
+            count += wheel.size;
+        }
+        return count;
+    }
+
+    /**
+     * 单个 EventLoop 的时间轮分片
+     */
+    private final class Wheel implements Runnable {
+
+        private final List<Session>[] buckets;
+
+        private final long startTime;
+
+        private final ScheduledFuture<?> future;
+
+        /**
+         * 出站队列正在溢出的会话
+         */
+        private final Set<Session> overflowing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * 已处理到的刻度
+         */
+        private long currentTick;
+
+        /**
+         * 分片内的会话数（仅在 EventLoop 上写）
+         */
+        private volatile int size;
+
+        @SuppressWarnings("unchecked")
+        private Wheel(EventLoop loop) {
+            // 截止时间最多在 timeout 之后，轮长覆盖一个超时周期即可，无需像通用时间轮那样记录圈数
+            int length = (int) (timeoutMillis / tickMillis) + 2;
+            this.buckets = new List[length];
+            for (int i = 0; i < length; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            this.startTime = System.currentTimeMillis();
+            this.future = loop.scheduleAtFixedRate(this, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void add(Session session) {
+            long deadlineTick = (session.getLastActiveTime() + timeoutMillis - startTime + tickMillis - 1) / tickMillis;
+            long tick = Math.min(Math.max(deadlineTick, currentTick + 1), currentTick + buckets.length - 1);
+            buckets[(int) (tick % buckets.length)].add(session);
+            size++;
+        }
+
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            long targetTick = (now - startTime) / tickMillis;
+            // EventLoop 繁忙导致任务延后时，补齐错过的刻度
+            while (currentTick < targetTick) {
+                currentTick++;
+                expire(buckets[(int) (currentTick % buckets.length)], now);
+            }
+            checkOverflow(now);
+        }
+
+        private void checkOverflow(long now) {
+            if (overflowing.isEmpty()) {
+                return;
+            }
+            Iterator<Session> iterator = overflowing.iterator();
+            while (iterator.hasNext()) {
+                if (!iterator.next().checkOverflow(now)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        private void expire(List<Session> bucket, long now) {
+            if (bucket.isEmpty()) {
+                return;
+            }
+            List<Session> next = buckets[(int) ((currentTick + 1) % buckets.length)];
+            int closed = 0;
+            for (Session session : bucket) {
+                size--;
+                if (!session.getChannel().isActive()) {
+                    continue;
+                }
+                if (now - session.getLastActiveTime() < timeoutMillis) {
+                    add(session);
+                } else if (closed < closeBatchSize) {
+                    closed++;
+                    log.debug("连接空闲超时，关闭连接: {}", session.getChannel().remoteAddress());
+                    session.getChannel().close();
+                } else {
+                    next.add(session);
+                    size++;
+                }
+            }
+            bucket.clear();
+
+            if (closed > 0) {
+                reapedCount.add(closed);
+                log.info("回收空闲连接: {} 个", closed);
+            }
+        }
+    }
+}
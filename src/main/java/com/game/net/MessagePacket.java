@@ -0,0 +1,49 @@
+package com.game.net;
+
+import com.google.protobuf.Message;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 出站消息数据包
+ * 直接持有 Protobuf 消息对象，由 {@link PacketFrameEncoder} 在编码时
+ * 通过 CodedOutputStream 序列化到池化直接内存中，省去中间字节数组
+ *
+ * @author Harleysama
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class MessagePacket extends ProtocolPacket {
+
+    /**
+     * Protobuf 消息对象
+     */
+    private final Message message;
+
+    public MessagePacket(int messageType, Message message) {
+        super(messageType, (byte[]) null);
+        this.message = message;
+    }
+
+    /**
+     * 获取消息数据（兼容访问器）
+     * 首次调用时才序列化为字节数组并缓存
+     */
+    @Override
+    public byte[] getData() {
+        if (super.getData() == null && message != null) {
+            setData(message.toByteArray());
+        }
+        return super.getData();
+    }
+
+    /**
+     * 数据体长度（Protobuf 会缓存序列化大小，重复调用无额外开销）
+     */
+    @Override
+    public int getDataLength() {
+        return message == null ? 0 : message.getSerializedSize();
+    }
+}
@@ -1,87 +1,180 @@
 package com.game.net;
 
 import com.game.config.ServerConfig;
+import com.game.handler.ExecutionMode;
+import com.game.metrics.AdminServer;
+import com.game.metrics.DispatchMetrics;
+import com.game.metrics.MetricsReporter;
+import com.game.metrics.PrometheusExporter;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
-import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Netty 服务器
  * 基于Netty实现的高性能游戏服务器
+ * <p>
+ * Linux 下优先使用 epoll 原生传输，不可用时自动回退到 NIO
  *
  * @author Harleysama
  */
 @Slf4j
 public class NettyServer {
 
+    /**
+     * 关闭时等待业务任务完成的最长时间(秒)
+     */
+    private static final long BUSINESS_TERMINATION_SECONDS = 10;
+
     private final ServerConfig config;
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
-    private Channel serverChannel;
+    private ExecutorService businessExecutor;
+    private PacketRateLimiter rateLimiter;
+    private IdleReaper idleReaper;
+    private MetricsReporter metricsReporter;
+    private AdminServer adminServer;
+    private final List<Channel> serverChannels = new ArrayList<>();
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
 
     public NettyServer(ServerConfig config) {
         this.config = config;
     }
 
     /**
-     * 启动服务器
+     * 启动服务器（阻塞直到服务器关闭）
      */
     public void start() throws InterruptedException {
         log.info("正在启动游戏服务器... 端口: {}", config.getPort());
 
-        // Boss线程组 - 处理连接请求
-        bossGroup = new NioEventLoopGroup(1);
-        // Worker线程组 - 处理IO操作
-        workerGroup = new NioEventLoopGroup(config.getWorkerThreads());
+        boolean useEpoll = isEpollUsable();
+        // SO_REUSEPORT 时每个接入线程绑定一个独立的监听通道
+        int acceptorCount = useEpoll && config.isEpollReusePort()
+                ? Math.max(1, config.getEpollAcceptorThreads()) : 1;
+
+        Class<? extends ServerSocketChannel> channelClass;
+        if (useEpoll) {
+            bossGroup = new EpollEventLoopGroup(acceptorCount);
+            workerGroup = new EpollEventLoopGroup(config.getWorkerThreads());
+            channelClass = EpollServerSocketChannel.class;
+        } else {
+            // Boss线程组 - 处理连接请求
+            bossGroup = new NioEventLoopGroup(1);
+            // Worker线程组 - 处理IO操作
+            workerGroup = new NioEventLoopGroup(config.getWorkerThreads());
+            channelClass = NioServerSocketChannel.class;
+        }
+
+        // 业务执行器 - 执行阻塞型消息处理器
+        businessExecutor = createBusinessExecutor();
+
+        // 空闲连接回收 - 替代每连接一个的 IdleStateHandler
+        idleReaper = new IdleReaper(TimeUnit.SECONDS.toMillis(config.getHeartbeatTimeout()),
+                config.getIdleTickMillis(), config.getIdleCloseBatchSize());
+        SessionManager.setIdleReaper(idleReaper);
+
+        // 帧压缩、帧头格式、批量帧协商配置
+        FrameOptions.configure(config.isCompressionEnabled(), config.getCompressionThreshold(),
+                config.isVarintHeaderEnabled(), config.isBatchFramesEnabled());
+
+        // 消息分发指标
+        DispatchMetrics.setEnabled(config.isMetricsEnabled());
+        if (config.isMetricsEnabled() && config.getMetricsReportIntervalSeconds() > 0) {
+            metricsReporter = new MetricsReporter(config.getMetricsReportIntervalSeconds());
+            metricsReporter.start();
+        }
+
+        // 会话出站队列策略
+        SessionManager.setOutboundPolicy(new OutboundPolicy(
+                config.getOutboundQueueCapacity(),
+                config.getOutboundDroppableTypes().stream().mapToInt(Integer::intValue).toArray(),
+                TimeUnit.SECONDS.toMillis(config.getOutboundOverflowDisconnectSeconds())));
+
+        // 数据包限流器 - 所有连接共享规则，令牌桶状态保存在各自的 Session 上
+        if (config.isRateLimitEnabled() && !config.getRateLimitRules().isEmpty()) {
+            rateLimiter = new PacketRateLimiter(config.getRateLimitRules(), config.isRateLimitSilentDrop());
+        }
 
         try {
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(channelClass)
                     .option(ChannelOption.SO_BACKLOG, 1024)
                     .option(ChannelOption.SO_REUSEADDR, true)
                     .childOption(ChannelOption.TCP_NODELAY, true)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                            config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()))
                     .handler(new LoggingHandler(LogLevel.INFO))
                     .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel ch) {
                             ChannelPipeline pipeline = ch.pipeline();
 
-                            // 心跳检测 - 读超时60秒
-                            pipeline.addLast("idleStateHandler",
-                                    new IdleStateHandler(config.getHeartbeatTimeout(), 0, 0, TimeUnit.SECONDS));
+                            // flush 合并 - 位于出站方向最末端，合并同一批次内的 flush
+                            if (config.isFlushConsolidationEnabled()) {
+                                pipeline.addLast("flushConsolidation", new FlushConsolidationHandler(
+                                        config.getExplicitFlushAfterFlushes(), true));
+                            }
 
                             // 协议编解码
-                            pipeline.addLast("frameDecoder", new PacketFrameDecoder());
+                            pipeline.addLast(FrameOptions.DECODER_NAME, new PacketFrameDecoder(config.isZeroCopyDecode()));
                             pipeline.addLast("frameEncoder", new PacketFrameEncoder());
 
                             // 业务处理器
-                            pipeline.addLast("gameHandler", new GameServerHandler());
+                            pipeline.addLast("gameHandler", new GameServerHandler(config.getExecutionMode(), businessExecutor,
+                                    rateLimiter, config.getMailboxCapacity()));
                         }
                     });
 
+            if (useEpoll) {
+                applyEpollOptions(bootstrap);
+            }
+
+            // 监控 HTTP 服务
+            if (config.isAdminEnabled()) {
+                startAdminServer();
+            }
+
             // 绑定端口并启动
-            ChannelFuture future = bootstrap.bind(config.getPort()).sync();
-            serverChannel = future.channel();
+            for (int i = 0; i < acceptorCount; i++) {
+                ChannelFuture future = bootstrap.bind(config.getPort()).sync();
+                serverChannels.add(future.channel());
+            }
 
             log.info("========================================");
             log.info("游戏服务器启动成功! (*￣︶￣)");
             log.info("监听端口: {}", config.getPort());
+            log.info("传输方式: {}, 监听通道数: {}", useEpoll ? "epoll" : "nio", acceptorCount);
             log.info("工作线程数: {}", config.getWorkerThreads());
-            log.info("心跳超时: {}秒", config.getHeartbeatTimeout());
+            log.info("业务执行模式: {}", config.getExecutionMode());
+            log.info("心跳超时: {}秒, 空闲检查刻度: {}ms", config.getHeartbeatTimeout(), config.getIdleTickMillis());
             log.info("========================================");
 
             // 阻塞，直到服务器关闭
-            serverChannel.closeFuture().sync();
+            for (Channel serverChannel : serverChannels) {
+                serverChannel.closeFuture().sync();
+            }
 
         } finally {
             shutdown();
@@ -89,21 +182,123 @@ public class NettyServer {
     }
 
     /**
-     * 优雅关闭服务器
+     * 启动监控 HTTP 服务，启动失败不影响游戏服务
+     */
+    private void startAdminServer() {
+        PrometheusExporter exporter = new PrometheusExporter();
+        exporter.addEventLoopGroup("boss", bossGroup);
+        exporter.addEventLoopGroup("worker", workerGroup);
+        adminServer = new AdminServer(config.getAdminHost(), config.getAdminPort(), exporter);
+        try {
+            adminServer.start();
+        } catch (Exception e) {
+            log.error("监控服务启动失败: {}:{}, error={}", config.getAdminHost(), config.getAdminPort(), e.getMessage());
+            adminServer = null;
+        }
+    }
+
+    /**
+     * 获取数据包限流器（未启用时为 null）
+     */
+    public PacketRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * 按执行模式创建业务执行器
+     */
+    private ExecutorService createBusinessExecutor() {
+        ExecutionMode mode = config.getExecutionMode();
+        if (mode == ExecutionMode.INLINE) {
+            return null;
+        }
+        if (mode == ExecutionMode.VIRTUAL) {
+            log.info("业务执行器: 虚拟线程, 并发上限={}", config.getVirtualMaxInFlight());
+            return new VirtualThreadExecutor("game-virtual", config.getVirtualMaxInFlight());
+        }
+        log.info("业务执行器: 平台线程池, 线程数={}", config.getBusinessThreads());
+        return Executors.newFixedThreadPool(config.getBusinessThreads(), new DefaultThreadFactory("game-business"));
+    }
+
+    /**
+     * 判断是否可以使用 epoll 原生传输
+     */
+    private boolean isEpollUsable() {
+        if (!config.isEpollEnabled()) {
+            return false;
+        }
+        if (!Epoll.isAvailable()) {
+            log.info("epoll 原生传输不可用，回退到 NIO: {}", String.valueOf(Epoll.unavailabilityCause()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 应用 epoll 专属选项
+     */
+    private void applyEpollOptions(ServerBootstrap bootstrap) {
+        EpollMode epollMode = config.isEpollEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
+
+        bootstrap.option(EpollChannelOption.SO_REUSEPORT, config.isEpollReusePort())
+                .option(EpollChannelOption.EPOLL_MODE, epollMode)
+                .childOption(EpollChannelOption.TCP_QUICKACK, config.isEpollTcpQuickAck())
+                .childOption(EpollChannelOption.EPOLL_MODE, epollMode);
+
+        log.info("epoll 选项: reusePort={}, tcpQuickAck={}, mode={}",
+                config.isEpollReusePort(), config.isEpollTcpQuickAck(), epollMode);
+    }
+
+    /**
+     * 优雅关闭服务器（可重复调用）
+     * 依次停止接入、关闭所有连接、等待业务任务完成，返回后不会再有消息修改会话或角色
      */
     public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
         log.info("正在关闭游戏服务器...");
 
-        if (serverChannel != null) {
+        for (Channel serverChannel : serverChannels) {
             serverChannel.close().syncUninterruptibly();
         }
 
+        if (idleReaper != null) {
+            idleReaper.stop();
+            log.info("累计回收空闲连接: {}", idleReaper.getReapedCount());
+        }
+
+        if (metricsReporter != null) {
+            metricsReporter.stop();
+        }
+
+        if (adminServer != null) {
+            adminServer.stop();
+        }
+
         if (bossGroup != null) {
             bossGroup.shutdownGracefully();
         }
 
+        // 等待所有连接关闭、会话移除，此后不再有新的业务消息
         if (workerGroup != null) {
-            workerGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully().syncUninterruptibly();
+        }
+
+        // 等待已开始执行的业务任务完成，关服写回时角色不再被修改
+        if (businessExecutor != null) {
+            businessExecutor.shutdown();
+            try {
+                if (!businessExecutor.awaitTermination(BUSINESS_TERMINATION_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("业务任务在 {} 秒内未全部完成", BUSINESS_TERMINATION_SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (rateLimiter != null) {
+            log.info("累计限流数据包: {}", rateLimiter.getTotalThrottledCount());
         }
 
         log.info("游戏服务器已关闭。再见啦，笨蛋! (￣^￣)ゞ");
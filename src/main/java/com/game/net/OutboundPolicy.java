@@ -0,0 +1,56 @@
+package com.game.net;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * 出站队列策略
+ * 连接不可写（超过写缓冲高水位）时，消息先进入会话的有界出站队列；
+ * 队列满时优先丢弃最早的可丢弃消息（如移动同步、聊天），持续溢出则断开连接
+ *
+ * @author Harleysama
+ */
+@Getter
+public class OutboundPolicy {
+
+    /**
+     * 默认策略：队列容量256，无可丢弃类型，持续溢出10秒断开
+     */
+    public static final OutboundPolicy DEFAULT = new OutboundPolicy(256, new int[0], 10_000);
+
+    /**
+     * 出站队列容量
+     */
+    private final int queueCapacity;
+
+    /**
+     * 可丢弃的消息类型（下标为消息类型）
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean[] droppable;
+
+    /**
+     * 持续溢出多久后断开连接(毫秒)
+     */
+    private final long overflowDisconnectMillis;
+
+    public OutboundPolicy(int queueCapacity, int[] droppableTypes, long overflowDisconnectMillis) {
+        int maxType = -1;
+        for (int type : droppableTypes) {
+            maxType = Math.max(maxType, type);
+        }
+        this.droppable = new boolean[maxType + 1];
+        for (int type : droppableTypes) {
+            droppable[type] = true;
+        }
+        this.queueCapacity = queueCapacity;
+        this.overflowDisconnectMillis = overflowDisconnectMillis;
+    }
+
+    /**
+     * 消息类型是否可丢弃
+     */
+    public boolean isDroppable(int messageType) {
+        return messageType >= 0 && messageType < droppable.length && droppable[messageType];
+    }
+}
@@ -0,0 +1,108 @@
+package com.game.net;
+
+import com.game.protocol.generated.CommonProto;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量消息帧编解码
+ * BATCH 帧的数据体由若干子消息顺序拼接而成：
+ * <pre>
+ * [消息类型(varint)][数据长度(varint)][数据体] [消息类型(varint)][数据长度(varint)][数据体] ...
+ * </pre>
+ * 子消息不带标志位，压缩等帧级选项作用于整个 BATCH 帧；BATCH 不允许嵌套
+ *
+ * @author Harleysama
+ */
+public final class PacketBatch {
+
+    /**
+     * 单个批量帧数据体的最大字节数，超过时拆分为多个批量帧
+     */
+    public static final int MAX_BATCH_BYTES = 64 * 1024;
+
+    private PacketBatch() {
+    }
+
+    /**
+     * 是否为批量帧
+     */
+    public static boolean isBatch(int messageType) {
+        return messageType == CommonProto.MessageType.BATCH_VALUE;
+    }
+
+    /**
+     * 子消息编码后的字节数
+     */
+    public static int entrySize(ProtocolPacket packet) {
+        int dataLength = packet.getDataLength();
+        return Varint.computeSize(packet.getMessageType()) + Varint.computeSize(dataLength) + dataLength;
+    }
+
+    /**
+     * 将一组数据包编码为一个 BATCH 数据包
+     * 子数据包的所有权不转移，由调用方释放
+     *
+     * @param allocator 缓冲区分配器
+     * @param packets   子数据包
+     * @param from      起始下标（含）
+     * @param to        结束下标（不含）
+     * @param bodySize  数据体总字节数（各子消息 {@link #entrySize} 之和）
+     */
+    public static ProtocolPacket encode(ByteBufAllocator allocator, List<ProtocolPacket> packets,
+                                        int from, int to, int bodySize) throws IOException {
+        ByteBuf body = allocator.ioBuffer(bodySize);
+        try {
+            for (int i = from; i < to; i++) {
+                ProtocolPacket packet = packets.get(i);
+                int dataLength = packet.getDataLength();
+                Varint.write(body, packet.getMessageType());
+                Varint.write(body, dataLength);
+                PacketFrameEncoder.writeBody(packet, dataLength, body);
+            }
+            return new ProtocolPacket(CommonProto.MessageType.BATCH_VALUE, body);
+        } catch (IOException | RuntimeException e) {
+            body.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 将 BATCH 数据体按顺序拆分为独立的数据包
+     * 全部解析成功后才加入 out，格式错误时已拆出的数据包会被释放
+     *
+     * @param body     BATCH 数据体，所有权不转移
+     * @param zeroCopy 子数据包是否以 body 的 retained slice 承载
+     * @param out      输出列表
+     * @throws CorruptedFrameException 子消息格式错误
+     */
+    public static void decode(ByteBuf body, boolean zeroCopy, List<Object> out) {
+        List<ProtocolPacket> packets = new ArrayList<>();
+        try {
+            while (body.isReadable()) {
+                int messageType = Varint.read(body);
+                int dataLength = Varint.read(body);
+                if (messageType <= 0 || messageType > FrameOptions.TYPE_MASK || isBatch(messageType)) {
+                    throw new CorruptedFrameException("批量帧子消息类型非法: " + messageType);
+                }
+                if (dataLength < 0 || dataLength > body.readableBytes()) {
+                    throw new CorruptedFrameException("批量帧子消息长度非法: " + dataLength);
+                }
+                packets.add(zeroCopy
+                        ? new ProtocolPacket(messageType, body.readRetainedSlice(dataLength))
+                        : new ProtocolPacket(messageType, ByteBufUtil.getBytes(body.readSlice(dataLength))));
+            }
+        } catch (RuntimeException e) {
+            packets.forEach(ReferenceCountUtil::release);
+            throw e;
+        }
+        out.addAll(packets);
+    }
+}
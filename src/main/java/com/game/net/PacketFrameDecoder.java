@@ -1,8 +1,13 @@
 package com.game.net;
 
+import com.game.protocol.generated.CommonProto;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
@@ -10,6 +15,21 @@ import java.util.List;
 /**
  * 数据包帧解码器
  * 解析协议格式: [数据长度(4字节)][消息类型(4字节)][数据体]
+ * <p>
+ * 零拷贝模式下数据体以入站缓冲区的 retained slice 形式交给后续处理器，
+ * 不再分配字节数组和复制数据，切片在分发结束后释放。
+ * <p>
+ * 压缩帧（类型字段带 {@link FrameOptions#FLAG_COMPRESSED}）仅在握手协商了压缩后接受，
+ * 解压到池化缓冲区后按普通数据包交给后续处理器。
+ * <p>
+ * 入站帧格式在解码器内切换：解码到连接的第一个握手帧时即按其内容协商帧选项（结果存入
+ * {@link FrameOptions#NEGOTIATED_KEY} 交给握手处理器），从紧接其后的字节起按协商结果解码。
+ * 协商为紧凑帧头时就地替换为 {@link VarintFrameDecoder}，缓冲区中剩余的字节在握手包交出后转交新解码器。
+ * 客户端须在收到握手响应后才发送后续帧，提前按旧格式发送的帧会被判为非法帧并断开连接。
+ * <p>
+ * 批量帧（BATCH）在此拆分为独立的数据包，按帧内顺序交给后续处理器，见 {@link PacketBatch}。
+ * <p>
+ * 带 {@link FrameOptions#FLAG_SEQUENCE} 的帧在帧头后携带 varint 序列号，解码后记录在数据包上。
  *
  * @author Harleysama
  */
@@ -17,7 +37,41 @@ import java.util.List;
 public class PacketFrameDecoder extends ByteToMessageDecoder {
 
     private static final int HEADER_SIZE = 8; // 长度(4) + 类型(4)
-    private static final int MAX_FRAME_LENGTH = 1024 * 1024; // 最大1MB
+    static final int MAX_FRAME_LENGTH = 1024 * 1024; // 最大1MB
+
+    /**
+     * 是否启用零拷贝解码
+     */
+    @Getter
+    private final boolean zeroCopy;
+
+    /**
+     * 是否已解码过握手帧（只有第一个握手帧参与协商）
+     */
+    private boolean handshakeReceived;
+
+    /**
+     * 是否接受压缩帧（握手协商结果）
+     */
+    private boolean compressionAccepted;
+
+    /**
+     * 切换帧格式后接替本解码器的解码器
+     */
+    private PacketFrameDecoder successor;
+
+    /**
+     * 切换帧格式时缓冲区中剩余的字节，本解码器移除后转交给 successor
+     */
+    private ByteBuf handoff;
+
+    public PacketFrameDecoder() {
+        this(true);
+    }
+
+    public PacketFrameDecoder(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
@@ -39,8 +93,8 @@ public class PacketFrameDecoder extends ByteToMessageDecoder {
             return;
         }
 
-        // 读取消息类型
-        int messageType = in.readInt();
+        // 读取消息类型（高字节为标志位）
+        int typeField = in.readInt();
 
         // 检查数据体是否完整
         if (in.readableBytes() < dataLength) {
@@ -49,14 +103,146 @@ public class PacketFrameDecoder extends ByteToMessageDecoder {
             return;
         }
 
-        // 读取数据体
-        byte[] data = new byte[dataLength];
-        in.readBytes(data);
+        readBody(ctx, in, typeField, dataLength, out);
+    }
 
-        // 封装成协议数据包
-        ProtocolPacket packet = new ProtocolPacket(messageType, data);
-        out.add(packet);
+    /**
+     * 读取完整的数据体并封装成协议数据包
+     *
+     * @param typeField  定长帧头格式的消息类型及标志位
+     * @param dataLength 数据体长度，调用方保证 in 中已有足够字节
+     */
+    protected final void readBody(ChannelHandlerContext ctx, ByteBuf in, int typeField, int dataLength,
+                                  List<Object> out) {
+        int messageType = typeField & FrameOptions.TYPE_MASK;
+        int flags = typeField & ~FrameOptions.TYPE_MASK;
+
+        // 帧头扩展：请求序列号
+        int sequence = 0;
+        if ((flags & FrameOptions.FLAG_SEQUENCE) != 0) {
+            ByteBuf extension = in.slice(in.readerIndex(), Math.min(dataLength, Varint.MAX_SIZE));
+            try {
+                sequence = Varint.read(extension);
+            } catch (CorruptedFrameException e) {
+                log.error("检测到非法序列号扩展, 连接将被关闭!");
+                in.skipBytes(in.readableBytes());
+                ctx.close();
+                return;
+            }
+            in.skipBytes(extension.readerIndex());
+            dataLength -= extension.readerIndex();
+            flags &= ~FrameOptions.FLAG_SEQUENCE;
+        }
+
+        ByteBuf body;
+        if (flags == 0) {
+            body = in.readRetainedSlice(dataLength);
+        } else if (flags == FrameOptions.FLAG_COMPRESSED && compressionAccepted) {
+            body = decodeCompressed(ctx, in, dataLength);
+            if (body == null) {
+                return;
+            }
+        } else {
+            log.error("检测到非法帧标志: 0x{}, 连接将被关闭!", Integer.toHexString(flags));
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return;
+        }
+
+        try {
+            if (PacketBatch.isBatch(messageType)) {
+                // 批量帧按顺序拆分为独立的数据包（子消息不携带序列号）
+                PacketBatch.decode(body, zeroCopy, out);
+            } else {
+                // 零拷贝：数据体以切片形式交给后续处理器
+                ProtocolPacket packet = zeroCopy
+                        ? new ProtocolPacket(messageType, body.retain())
+                        : new ProtocolPacket(messageType, ByteBufUtil.getBytes(body));
+                packet.setSequence(sequence);
+                out.add(packet);
+                if (messageType == CommonProto.MessageType.HANDSHAKE_VALUE && !handshakeReceived) {
+                    onHandshake(ctx, in, packet);
+                }
+            }
+        } catch (CorruptedFrameException e) {
+            log.error("{}, 连接将被关闭!", e.getMessage());
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return;
+        } finally {
+            body.release();
+        }
 
         log.debug("解码数据包: 类型={}, 长度={}", messageType, dataLength);
     }
+
+    /**
+     * 按第一个握手帧协商帧选项，之后的入站字节按协商结果解码
+     */
+    private void onHandshake(ChannelHandlerContext ctx, ByteBuf in, ProtocolPacket packet) {
+        handshakeReceived = true;
+        FrameOptions options;
+        try {
+            options = FrameOptions.negotiate(packet.parse(CommonProto.Handshake.parser()));
+        } catch (InvalidProtocolBufferException e) {
+            // 握手处理器解析同样失败并回复错误，保持默认格式
+            options = FrameOptions.DEFAULT;
+        }
+        ctx.channel().attr(FrameOptions.NEGOTIATED_KEY).set(options);
+        compressionAccepted = options.isCompressionEnabled();
+
+        if (options.isVarintHeader()) {
+            successor = new VarintFrameDecoder(zeroCopy);
+            successor.handshakeReceived = true;
+            successor.compressionAccepted = compressionAccepted;
+            // 剩余字节不能随移除交给下一个处理器，需由新解码器接着解码
+            handoff = in.isReadable() ? in.readRetainedSlice(in.readableBytes()) : null;
+            ctx.pipeline().replace(this, FrameOptions.DECODER_NAME, successor);
+            log.debug("入站帧格式切换为紧凑帧头: channel={}", ctx.channel().id());
+        }
+    }
+
+    /**
+     * 本解码器移除时握手包已交出，此时把剩余字节交给新解码器，保证入站顺序
+     */
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        ByteBuf remaining = handoff;
+        if (remaining == null) {
+            return;
+        }
+        handoff = null;
+        ChannelHandlerContext successorCtx = ctx.pipeline().context(successor);
+        if (successorCtx == null) {
+            remaining.release();
+            return;
+        }
+        successor.channelRead(successorCtx, remaining);
+    }
+
+    /**
+     * 解压压缩帧
+     * 数据体格式: [原始长度(4字节)][压缩数据]
+     *
+     * @return 解压后的数据体，长度非法时关闭连接并返回 null
+     */
+    private ByteBuf decodeCompressed(ChannelHandlerContext ctx, ByteBuf in, int dataLength) {
+        int rawLength = dataLength >= 4 ? in.getInt(in.readerIndex()) : -1;
+        if (rawLength < 0 || rawLength > MAX_FRAME_LENGTH) {
+            log.error("检测到非法压缩帧原始长度: {}, 连接将被关闭!", rawLength);
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return null;
+        }
+
+        ByteBuf compressed = in.readSlice(dataLength).skipBytes(4);
+        ByteBuf body = ctx.alloc().buffer(rawLength);
+        try {
+            FrameCompression.inflate(compressed, body, rawLength);
+            return body;
+        } catch (RuntimeException e) {
+            body.release();
+            throw e;
+        }
+    }
 }
@@ -1,35 +1,202 @@
 package com.game.net;
 
+import com.game.metrics.DispatchMetrics;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+
 /**
  * 数据包帧编码器
  * 编码协议格式: [数据长度(4字节)][消息类型(4字节)][数据体]
+ * <p>
+ * 对 {@link MessagePacket} 按 getSerializedSize() 精确分配池化直接内存，
+ * 并将消息直接序列化进输出缓冲区，避免 toByteArray() 和二次复制。
+ * <p>
+ * 连接协商了压缩（见 {@link FrameOptions}）且数据体超过阈值时，输出压缩帧：
+ * [数据长度(4字节)][压缩标志 | 消息类型(4字节)][原始长度(4字节)][压缩数据]
+ * <p>
+ * 协商为紧凑帧头时，数据长度和消息类型改用 varint 编码（见 {@link FrameOptions}）。
+ * 数据包带有序列号时设置序列号标志，并在帧头后写入 varint 序列号。
  *
  * @author Harleysama
  */
 @Slf4j
 public class PacketFrameEncoder extends MessageToByteEncoder<ProtocolPacket> {
 
+    public static final int HEADER_SIZE = 8; // 长度(4) + 类型(4)
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ProtocolPacket packet, boolean preferDirect) {
+        int frameLength = frameLength(packet, FrameOptions.of(ctx.channel()));
+        return preferDirect ? ctx.alloc().ioBuffer(frameLength) : ctx.alloc().heapBuffer(frameLength);
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ProtocolPacket packet, ByteBuf out) throws Exception {
-        byte[] data = packet.getData();
-        int dataLength = data == null ? 0 : data.length;
+        writeFrame(packet, FrameOptions.of(ctx.channel()), ctx.alloc(), out);
+        DispatchMetrics.recordOutbound(packet.getMessageType(), packet.getDataLength());
+        log.debug("编码数据包: 类型={}, 长度={}", packet.getMessageType(), packet.getDataLength());
+    }
+
+    /**
+     * 将数据包编码为独立的帧缓冲区（用于广播等一次编码、多次发送的场景）
+     *
+     * @param allocator 缓冲区分配器
+     * @param packet    数据包
+     * @param options   目标连接的帧选项
+     * @return 编码后的帧，由调用方负责释放
+     */
+    public static ByteBuf encodeFrame(ByteBufAllocator allocator, ProtocolPacket packet, FrameOptions options)
+            throws IOException {
+        ByteBuf frame = allocator.ioBuffer(frameLength(packet, options));
+        try {
+            writeFrame(packet, options, allocator, frame);
+            return frame;
+        } catch (IOException | RuntimeException e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 未压缩时的帧长度
+     */
+    private static int frameLength(ProtocolPacket packet, FrameOptions options) {
+        int length = extensionLength(packet) + packet.getDataLength();
+        return options.headerSize(length, typeField(packet)) + length;
+    }
+
+    /**
+     * 帧头中的消息类型及标志位（不含压缩标志）
+     */
+    private static int typeField(ProtocolPacket packet) {
+        return packet.getSequence() != 0
+                ? packet.getMessageType() | FrameOptions.FLAG_SEQUENCE : packet.getMessageType();
+    }
+
+    /**
+     * 帧头扩展（序列号）的字节数
+     */
+    private static int extensionLength(ProtocolPacket packet) {
+        return packet.getSequence() != 0 ? Varint.computeSize(packet.getSequence()) : 0;
+    }
+
+    /**
+     * 写入帧头扩展
+     */
+    private static void writeExtension(ProtocolPacket packet, ByteBuf out) {
+        if (packet.getSequence() != 0) {
+            Varint.write(out, packet.getSequence());
+        }
+    }
+
+    /**
+     * 写入一个完整的帧
+     */
+    static void writeFrame(ProtocolPacket packet, FrameOptions options, ByteBufAllocator allocator, ByteBuf out)
+            throws IOException {
+        int dataLength = packet.getDataLength();
+        int extensionLength = extensionLength(packet);
+
+        if (!options.shouldCompress(dataLength)) {
+            // 写入帧头（数据长度 + 消息类型）
+            options.writeHeader(out, extensionLength + dataLength, typeField(packet));
+            writeExtension(packet, out);
+            // 写入数据体
+            writeBody(packet, dataLength, out);
+            return;
+        }
+
+        int typeField = typeField(packet) | FrameOptions.FLAG_COMPRESSED;
+        if (!options.isVarintHeader()) {
+            // 定长帧头：先写占位长度，压缩完成后回填
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            out.writeInt(typeField);
+            writeExtension(packet, out);
+            writeCompressedBody(packet, dataLength, allocator, out);
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - HEADER_SIZE);
+            return;
+        }
+
+        // 紧凑帧头：长度为变长编码无法回填，先压缩到临时缓冲区
+        ByteBuf compressed = allocator.ioBuffer(dataLength);
+        try {
+            writeCompressedBody(packet, dataLength, allocator, compressed);
+            options.writeHeader(out, extensionLength + compressed.readableBytes(), typeField);
+            writeExtension(packet, out);
+            out.writeBytes(compressed);
+        } finally {
+            compressed.release();
+        }
+    }
 
-        // 写入数据长度
+    /**
+     * 写入压缩数据体: [原始长度(4字节)][压缩数据]
+     */
+    private static void writeCompressedBody(ProtocolPacket packet, int dataLength, ByteBufAllocator allocator,
+                                            ByteBuf out) throws IOException {
         out.writeInt(dataLength);
 
-        // 写入消息类型
-        out.writeInt(packet.getMessageType());
+        ByteBuf body = packet.getBody();
+        if (body != null) {
+            FrameCompression.deflate(body.duplicate(), out);
+            return;
+        }
+        ByteBuf raw = allocator.ioBuffer(dataLength);
+        try {
+            writeBody(packet, dataLength, raw);
+            FrameCompression.deflate(raw, out);
+        } finally {
+            raw.release();
+        }
+    }
+
+    /**
+     * 写入数据体
+     */
+    static void writeBody(ProtocolPacket packet, int dataLength, ByteBuf out) throws IOException {
+        ByteBuf body = packet.getBody();
+        if (packet instanceof MessagePacket) {
+            writeMessage(((MessagePacket) packet).getMessage(), dataLength, out);
+        } else if (body != null) {
+            out.writeBytes(body, body.readerIndex(), dataLength);
+        } else if (dataLength > 0) {
+            out.writeBytes(packet.getData());
+        }
+    }
 
-        // 写入数据体
-        if (dataLength > 0) {
-            out.writeBytes(data);
+    /**
+     * 将 Protobuf 消息直接序列化到缓冲区
+     *
+     * @param message 消息对象
+     * @param size    序列化后的长度
+     * @param out     输出缓冲区
+     */
+    static void writeMessage(Message message, int size, ByteBuf out) throws IOException {
+        if (message == null || size == 0) {
+            return;
         }
 
-        log.debug("编码数据包: 类型={}, 长度={}", packet.getMessageType(), dataLength);
+        out.ensureWritable(size);
+        int writerIndex = out.writerIndex();
+
+        if (out.nioBufferCount() == 1) {
+            // 单段缓冲区：CodedOutputStream 直接写入底层内存
+            CodedOutputStream output = CodedOutputStream.newInstance(out.nioBuffer(writerIndex, size));
+            message.writeTo(output);
+            output.checkNoSpaceLeft();
+            out.writerIndex(writerIndex + size);
+        } else {
+            // 复合缓冲区：退化为流式写入
+            message.writeTo(new ByteBufOutputStream(out));
+        }
     }
 }
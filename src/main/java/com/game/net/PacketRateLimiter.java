@@ -0,0 +1,154 @@
+package com.game.net;
+
+import com.game.config.RateLimitRule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据包限流器
+ * 按消息类型配置令牌桶，在协议解析之前执行
+ * <p>
+ * 令牌桶以 GCRA（理论到达时间）形式实现：每个桶只需一个 long，
+ * 状态保存在 {@link Session} 上，且只在连接所属的 EventLoop 线程中读写，因此无需任何锁或 CAS
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class PacketRateLimiter {
+
+    private static final int UNLIMITED = -1;
+
+    /**
+     * 消息类型 -> 规则槽位，UNLIMITED 表示不限流
+     */
+    private final int[] slotByType;
+
+    /**
+     * 每个槽位的令牌发放间隔(纳秒)
+     */
+    private final long[] intervalNanos;
+
+    /**
+     * 每个槽位允许的突发容忍时间(纳秒)
+     */
+    private final long[] burstNanos;
+
+    /**
+     * 每个槽位被限流的数据包计数
+     */
+    private final LongAdder[] throttled;
+
+    private final int[] slotTypes;
+
+    /**
+     * 超限时是否静默丢弃（否则返回 RATE_LIMIT 错误）
+     */
+    private final boolean silentDrop;
+
+    public PacketRateLimiter(List<RateLimitRule> rules, boolean silentDrop) {
+        int maxType = -1;
+        for (RateLimitRule rule : rules) {
+            maxType = Math.max(maxType, rule.getMessageType());
+        }
+
+        this.slotByType = new int[maxType + 1];
+        Arrays.fill(slotByType, UNLIMITED);
+        this.intervalNanos = new long[rules.size()];
+        this.burstNanos = new long[rules.size()];
+        this.throttled = new LongAdder[rules.size()];
+        this.slotTypes = new int[rules.size()];
+        this.silentDrop = silentDrop;
+
+        for (int slot = 0; slot < rules.size(); slot++) {
+            RateLimitRule rule = rules.get(slot);
+            if (rule.getCapacity() < 1 || !(rule.getRefillPerSecond() > 0)) {
+                throw new IllegalArgumentException("无效的限流规则: " + rule);
+            }
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rule.getRefillPerSecond());
+            if (interval < 1) {
+                throw new IllegalArgumentException("限流规则补充速率过高: " + rule);
+            }
+            slotByType[rule.getMessageType()] = slot;
+            intervalNanos[slot] = interval;
+            burstNanos[slot] = interval * (rule.getCapacity() - 1);
+            throttled[slot] = new LongAdder();
+            slotTypes[slot] = rule.getMessageType();
+
+            log.info("消息限流规则: type={}, capacity={}, refillPerSecond={}",
+                    rule.getMessageType(), rule.getCapacity(), rule.getRefillPerSecond());
+        }
+    }
+
+    /**
+     * 尝试通过限流检查（必须在连接所属的 EventLoop 线程调用）
+     *
+     * @return true 表示放行，false 表示超限
+     */
+    public boolean tryAcquire(Session session, int messageType) {
+        if (messageType < 0 || messageType >= slotByType.length) {
+            return true;
+        }
+        int slot = slotByType[messageType];
+        if (slot == UNLIMITED) {
+            return true;
+        }
+
+        long[] state = session.getRateLimitState();
+        if (state == null) {
+            state = new long[intervalNanos.length];
+            session.setRateLimitState(state);
+        }
+
+        long now = System.nanoTime();
+        long tat = state[slot];
+        if (tat == 0) {
+            tat = now;
+        }
+        // 理论到达时间超前当前时间超过突发容忍度，说明桶已空
+        if (tat - now > burstNanos[slot]) {
+            throttled[slot].increment();
+            return false;
+        }
+        state[slot] = Math.max(tat, now) + intervalNanos[slot];
+        return true;
+    }
+
+    /**
+     * 超限时是否静默丢弃
+     */
+    public boolean isSilentDrop() {
+        return silentDrop;
+    }
+
+    /**
+     * 获取指定消息类型被限流的数据包数量
+     */
+    public long getThrottledCount(int messageType) {
+        if (messageType < 0 || messageType >= slotByType.length || slotByType[messageType] == UNLIMITED) {
+            return 0;
+        }
+        return throttled[slotByType[messageType]].sum();
+    }
+
+    /**
+     * 获取被限流的数据包总数
+     */
+    public long getTotalThrottledCount() {
+        long total = 0;
+        for (LongAdder counter : throttled) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 配置了限流规则的消息类型
+     */
+    public int[] getLimitedTypes() {
+        return slotTypes.clone();
+    }
+}
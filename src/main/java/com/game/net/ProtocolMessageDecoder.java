@@ -23,13 +23,13 @@ public class ProtocolMessageDecoder {
      * @return 解析后的消息对象
      */
     public static <T extends Message> T decode(ProtocolPacket packet, Parser<T> parser) {
-        if (packet == null || packet.getData() == null) {
+        if (packet == null || (packet.getBody() == null && packet.getData() == null)) {
             log.warn("数据包为空，无法解析");
             return null;
         }
 
         try {
-            return parser.parseFrom(packet.getData());
+            return packet.parse(parser);
         } catch (InvalidProtocolBufferException e) {
             log.error("消息解析失败: type={}, error={}", packet.getMessageType(), e.getMessage());
             return null;
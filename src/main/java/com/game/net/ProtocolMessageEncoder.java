@@ -25,8 +25,8 @@ public class ProtocolMessageEncoder {
             return ProtocolPacket.create(messageType, null);
         }
 
-        byte[] data = message.toByteArray();
-        return ProtocolPacket.create(messageType, data);
+        // 保留消息对象，由帧编码器直接序列化到出站缓冲区
+        return new MessagePacket(messageType, message);
     }
 
     /**
@@ -1,30 +1,68 @@
 package com.game.net;
 
-import lombok.AllArgsConstructor;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.ReferenceCounted;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * 协议数据包
  * 封装消息类型和数据体
+ * <p>
+ * 数据体有两种承载方式：
+ * <ul>
+ *     <li>{@code data}: 独立的字节数组（出站消息或兼容模式）</li>
+ *     <li>{@code body}: 入站缓冲区的引用计数切片（零拷贝模式），分发结束后由 Netty 自动释放</li>
+ * </ul>
  *
  * @author Harleysama
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class ProtocolPacket {
+public class ProtocolPacket implements ReferenceCounted {
+
+    private static final byte[] EMPTY_DATA = new byte[0];
 
     /**
      * 消息类型
      */
     private int messageType;
 
+    /**
+     * 请求序列号，0 表示未携带
+     * 客户端在请求上携带时，服务端在对应的响应和错误消息上原样回传
+     */
+    private int sequence;
+
     /**
      * 消息数据 (序列化后的 Protobuf 字节)
      */
     private byte[] data;
 
+    /**
+     * 零拷贝模式下的数据体 (入站缓冲区的 retained slice)
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ByteBuf body;
+
+    public ProtocolPacket(int messageType, byte[] data) {
+        this.messageType = messageType;
+        this.data = data;
+    }
+
+    public ProtocolPacket(int messageType, ByteBuf body) {
+        this.messageType = messageType;
+        this.body = body;
+    }
+
     /**
      * 创建数据包
      */
@@ -36,6 +74,92 @@ public class ProtocolPacket {
      * 创建空数据包
      */
     public static ProtocolPacket create(int messageType) {
-        return new ProtocolPacket(messageType, null);
+        return new ProtocolPacket(messageType, (byte[]) null);
+    }
+
+    /**
+     * 获取消息数据（兼容访问器）
+     * 零拷贝模式下首次调用会从 body 复制出字节数组并缓存
+     */
+    public byte[] getData() {
+        if (data == null && body != null) {
+            data = ByteBufUtil.getBytes(body);
+        }
+        return data;
+    }
+
+    /**
+     * 数据体长度
+     */
+    public int getDataLength() {
+        if (body != null) {
+            return body.readableBytes();
+        }
+        return data == null ? 0 : data.length;
+    }
+
+    /**
+     * 解析数据体
+     * 零拷贝模式下通过 CodedInputStream 直接读取 NIO 缓冲区，不产生中间字节数组
+     *
+     * @param parser Protobuf 解析器
+     * @param <T>    消息类型
+     * @return 解析后的消息对象
+     */
+    public <T extends Message> T parse(Parser<T> parser) throws InvalidProtocolBufferException {
+        if (body != null && body.nioBufferCount() == 1) {
+            return parser.parseFrom(CodedInputStream.newInstance(body.nioBuffer()));
+        }
+        byte[] bytes = getData();
+        return parser.parseFrom(bytes == null ? EMPTY_DATA : bytes);
+    }
+
+    // ========== ReferenceCounted (委托给 body) ==========
+
+    @Override
+    public int refCnt() {
+        return body == null ? 1 : body.refCnt();
+    }
+
+    @Override
+    public ProtocolPacket retain() {
+        if (body != null) {
+            body.retain();
+        }
+        return this;
+    }
+
+    @Override
+    public ProtocolPacket retain(int increment) {
+        if (body != null) {
+            body.retain(increment);
+        }
+        return this;
+    }
+
+    @Override
+    public ProtocolPacket touch() {
+        if (body != null) {
+            body.touch();
+        }
+        return this;
+    }
+
+    @Override
+    public ProtocolPacket touch(Object hint) {
+        if (body != null) {
+            body.touch(hint);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return body != null && body.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return body != null && body.release(decrement);
     }
 }
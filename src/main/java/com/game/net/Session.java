@@ -1,38 +1,69 @@
 package com.game.net;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 会话对象
  * 封装客户端连接信息
+ * <p>
+ * 出站消息在连接可写时直接写出；超过写缓冲高水位后进入有界出站队列，
+ * 按 {@link OutboundPolicy} 丢弃可丢弃消息或在持续溢出时断开连接。
+ * 出站队列只在连接所属的 EventLoop 上访问
  *
  * @author Harleysama
  */
+@Slf4j
 @Data
 public class Session {
 
+    /**
+     * 会话在 Channel 上的属性键
+     */
+    public static final AttributeKey<Session> KEY = AttributeKey.valueOf("session");
+
     /**
      * 网络通道
      */
     private final Channel channel;
 
     /**
-     * 用户ID（登录后绑定）
+     * 用户ID（登录后绑定，可能在 IO 线程和业务线程间传递）
+     */
+    private volatile Long userId;
+
+    /**
+     * 角色ID（选择角色后绑定，可能在 IO 线程和业务线程间传递）
      */
-    private Long userId;
+    private volatile Long roleId;
 
     /**
-     * 角色ID（选择角色后绑定）
+     * 最后活跃时间（每收到一个数据包更新，空闲回收器在其他刻度读取）
      */
-    private Long roleId;
+    private volatile long lastActiveTime;
 
     /**
-     * 最后活跃时间
+     * 限流令牌桶状态（按限流规则槽位存放理论到达时间，仅在连接所属 EventLoop 上读写）
      */
-    private long lastActiveTime;
+    private long[] rateLimitState;
 
     /**
      * 消息接收计数
@@ -44,8 +75,71 @@ public class Session {
      */
     private final AtomicLong sendCount = new AtomicLong(0);
 
+    /**
+     * 出站队列策略
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final OutboundPolicy outboundPolicy;
+
+    /**
+     * 出站队列（连接不可写时暂存消息，元素为 ProtocolPacket 或 EncodedFrame）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final ArrayDeque<Object> outboundQueue = new ArrayDeque<>();
+
+    /**
+     * 本轮事件循环内等待合并发送的消息（仅在 EventLoop 上访问）
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final List<ProtocolPacket> pendingBatch = new ArrayList<>();
+
+    /**
+     * 是否正在写出本轮合并的消息
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean flushingBatch;
+
+    /**
+     * 出站队列开始溢出的时间，0 表示未溢出
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long overflowSince;
+
+    /**
+     * 是否超过写缓冲高水位
+     */
+    @Setter(AccessLevel.PACKAGE)
+    @EqualsAndHashCode.Exclude
+    private boolean aboveHighWaterMark;
+
+    /**
+     * 丢弃的出站消息计数
+     */
+    @EqualsAndHashCode.Exclude
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
     public Session(Channel channel) {
+        this(channel, OutboundPolicy.DEFAULT);
+    }
+
+    public Session(Channel channel, OutboundPolicy outboundPolicy) {
         this.channel = channel;
+        this.outboundPolicy = outboundPolicy;
         this.lastActiveTime = System.currentTimeMillis();
     }
 
@@ -72,12 +166,325 @@ public class Session {
 
     /**
      * 发送消息
+     * 可在任意线程调用，实际写出在连接所属的 EventLoop 上执行
      */
     public void send(ProtocolPacket packet) {
-        if (channel.isActive()) {
-            channel.writeAndFlush(packet);
+        write(packet, true);
+    }
+
+    /**
+     * 写入消息但不刷新
+     * 适用于一次逻辑帧内向同一会话推送多条消息，最后调用 {@link #flush()} 一次性写出
+     */
+    public void write(ProtocolPacket packet) {
+        write(packet, false);
+    }
+
+    /**
+     * 刷新已写入的消息
+     */
+    public void flush() {
+        channel.flush();
+    }
+
+    /**
+     * 合并发送消息
+     * 同一轮事件循环内提交的消息在本轮结束时合并为 BATCH 帧写出并只刷新一次；
+     * 客户端未协商批量帧时逐条写出，同样只刷新一次。
+     * 之后通过 send / write 或广播发出的消息会先写出尚未合并发送的消息，不会越过它们
+     */
+    public void sendBatched(ProtocolPacket packet) {
+        if (!channel.isActive()) {
+            ReferenceCountUtil.release(packet);
+            return;
+        }
+        if (channel.eventLoop().inEventLoop()) {
+            addToBatch(packet);
+        } else {
+            channel.eventLoop().execute(() -> addToBatch(packet));
+        }
+    }
+
+    private void addToBatch(ProtocolPacket packet) {
+        pendingBatch.add(packet);
+        if (pendingBatch.size() == 1) {
+            EventLoop loop = channel.eventLoop();
+            if (loop instanceof SingleThreadEventLoop) {
+                // 本轮事件循环的 IO 与任务全部处理完后再写出
+                ((SingleThreadEventLoop) loop).executeAfterEventLoopIteration(this::flushBatch);
+            } else {
+                loop.execute(this::flushBatch);
+            }
+        }
+    }
+
+    /**
+     * 写出本轮合并的消息（必须在 EventLoop 上调用）
+     */
+    private void flushBatch() {
+        if (pendingBatch.isEmpty() || flushingBatch) {
+            // 已被后续的 send / write 提前写出，或写出过程中重入
+            return;
+        }
+        flushingBatch = true;
+        try {
+            if (!channel.isActive()) {
+                pendingBatch.forEach(ReferenceCountUtil::release);
+                return;
+            }
+            if (pendingBatch.size() == 1 || !FrameOptions.of(channel).isBatchEnabled()) {
+                for (ProtocolPacket packet : pendingBatch) {
+                    writeNow(packet, false);
+                }
+            } else {
+                writeBatches();
+            }
+            channel.flush();
+        } finally {
+            pendingBatch.clear();
+            flushingBatch = false;
+        }
+    }
+
+    /**
+     * 按 {@link PacketBatch#MAX_BATCH_BYTES} 把待发送消息切分为若干 BATCH 帧写出
+     */
+    private void writeBatches() {
+        int from = 0;
+        int bodySize = 0;
+        for (int i = 0; i < pendingBatch.size(); i++) {
+            ProtocolPacket packet = pendingBatch.get(i);
+            if (packet.getSequence() != 0) {
+                // 子消息不携带序列号，带序列号的响应单独成帧
+                if (i > from) {
+                    writeBatch(from, i, bodySize);
+                }
+                writeNow(packet, false);
+                from = i + 1;
+                bodySize = 0;
+                continue;
+            }
+            int entrySize = PacketBatch.entrySize(packet);
+            if (i > from && bodySize + entrySize > PacketBatch.MAX_BATCH_BYTES) {
+                writeBatch(from, i, bodySize);
+                from = i;
+                bodySize = 0;
+            }
+            bodySize += entrySize;
+        }
+        if (from < pendingBatch.size()) {
+            writeBatch(from, pendingBatch.size(), bodySize);
+        }
+    }
+
+    private void writeBatch(int from, int to, int bodySize) {
+        if (to - from == 1) {
+            writeNow(pendingBatch.get(from), false);
+            return;
+        }
+        if (!outboundQueue.isEmpty() || !channel.isWritable()) {
+            // 将进入出站队列：逐条入队，可丢弃的消息仍按各自的消息类型参与丢弃策略
+            for (int i = from; i < to; i++) {
+                writeNow(pendingBatch.get(i), false);
+            }
+            return;
+        }
+        try {
+            writeNow(PacketBatch.encode(channel.alloc(), pendingBatch, from, to, bodySize), false);
+        } catch (IOException e) {
+            log.error("批量帧编码失败: userId={}, count={}, error={}", userId, to - from, e.getMessage());
+        } finally {
+            for (int i = from; i < to; i++) {
+                ReferenceCountUtil.release(pendingBatch.get(i));
+            }
+        }
+    }
+
+    private void write(ProtocolPacket packet, boolean flush) {
+        if (!channel.isActive()) {
+            ReferenceCountUtil.release(packet);
+            return;
+        }
+        if (channel.eventLoop().inEventLoop()) {
+            writeOrdered(packet, flush);
+        } else {
+            channel.eventLoop().execute(() -> writeOrdered(packet, flush));
+        }
+    }
+
+    /**
+     * 先写出本轮尚未合并发送的消息，再写出当前消息，保证与 {@link #sendBatched} 的提交顺序一致
+     */
+    private void writeOrdered(ProtocolPacket packet, boolean flush) {
+        if (!pendingBatch.isEmpty()) {
+            flushBatch();
+        }
+        writeNow(packet, flush);
+    }
+
+    /**
+     * 在 EventLoop 上写出：可写且队列为空时直接写出，否则进入出站队列
+     * 调用方线程上的活跃检查与本方法执行之间连接可能已关闭，此时出站队列已清空，直接释放
+     */
+    private void writeNow(ProtocolPacket packet, boolean flush) {
+        if (!channel.isActive()) {
+            ReferenceCountUtil.release(packet);
+            return;
+        }
+        if (outboundQueue.isEmpty() && channel.isWritable()) {
+            if (flush) {
+                channel.writeAndFlush(packet, channel.voidPromise());
+            } else {
+                channel.write(packet, channel.voidPromise());
+            }
             incrementSendCount();
+            return;
         }
+        enqueue(packet, packet.getMessageType());
+    }
+
+    /**
+     * 写出已编码的帧，不刷新（广播使用，必须在 EventLoop 上调用）
+     *
+     * @param messageType 消息类型
+     * @param frame       已编码的帧，所有权转移给本方法
+     * @return 是否直接写入了通道（需要调用方 flush）
+     */
+    boolean writeFrame(int messageType, ByteBuf frame) {
+        if (!channel.isActive()) {
+            frame.release();
+            return false;
+        }
+        if (!pendingBatch.isEmpty()) {
+            flushBatch();
+        }
+        if (outboundQueue.isEmpty() && channel.isWritable()) {
+            channel.write(frame, channel.voidPromise());
+            incrementSendCount();
+            return true;
+        }
+        enqueue(new EncodedFrame(messageType, frame), messageType);
+        return false;
+    }
+
+    /**
+     * 加入出站队列，队列满时按策略丢弃或断开
+     */
+    private void enqueue(Object packet, int messageType) {
+        if (outboundQueue.size() >= outboundPolicy.getQueueCapacity()) {
+            long now = System.currentTimeMillis();
+            if (overflowSince == 0) {
+                overflowSince = now;
+                // 之后即使不再有新消息，也由空闲回收器的刻度检查是否持续溢出
+                SessionManager.watchOverflow(this);
+            } else if (now - overflowSince >= outboundPolicy.getOverflowDisconnectMillis()) {
+                log.warn("出站队列持续溢出，断开慢速连接: userId={}, remote={}, queued={}",
+                        userId, channel.remoteAddress(), outboundQueue.size());
+                ReferenceCountUtil.release(packet);
+                closeSlowConsumer();
+                return;
+            }
+
+            // 优先丢弃最早的可丢弃消息，其次丢弃新消息本身
+            if (!dropOldestDroppable()) {
+                if (outboundPolicy.isDroppable(messageType)) {
+                    ReferenceCountUtil.release(packet);
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+                // 没有可丢弃的消息可腾出空间，关键消息无法送达，只能断开
+                log.warn("出站队列已满且无可丢弃消息，断开慢速连接: userId={}, remote={}",
+                        userId, channel.remoteAddress());
+                ReferenceCountUtil.release(packet);
+                closeSlowConsumer();
+                return;
+            }
+        }
+        outboundQueue.offer(packet);
+    }
+
+    /**
+     * 检查出站队列是否持续溢出超过断开阈值，超过则断开（空闲回收器每个刻度调用，必须在 EventLoop 上调用）
+     * 对端停止读取且服务端不再产生新消息时，enqueue 不会再被调用，由这里兜底断开并释放排队的消息
+     *
+     * @return 是否仍需继续检查（仍在溢出且未断开）
+     */
+    boolean checkOverflow(long now) {
+        if (overflowSince == 0 || !channel.isActive()) {
+            return false;
+        }
+        if (now - overflowSince < outboundPolicy.getOverflowDisconnectMillis()) {
+            return true;
+        }
+        log.warn("出站队列持续溢出，断开慢速连接: userId={}, remote={}, queued={}",
+                userId, channel.remoteAddress(), outboundQueue.size());
+        closeSlowConsumer();
+        return false;
+    }
+
+    /**
+     * 丢弃队列中最早的一条可丢弃消息
+     */
+    private boolean dropOldestDroppable() {
+        Iterator<Object> iterator = outboundQueue.iterator();
+        while (iterator.hasNext()) {
+            Object queued = iterator.next();
+            if (outboundPolicy.isDroppable(queuedMessageType(queued))) {
+                iterator.remove();
+                ReferenceCountUtil.release(queued);
+                droppedCount.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 连接恢复可写后写出排队的消息（必须在 EventLoop 上调用）
+     */
+    void drainOutbound() {
+        boolean written = false;
+        Object packet;
+        while (channel.isWritable() && (packet = outboundQueue.poll()) != null) {
+            // 已编码的帧直接写出缓冲区本身，跳过帧编码器
+            Object message = packet instanceof EncodedFrame ? ((EncodedFrame) packet).content() : packet;
+            channel.write(message, channel.voidPromise());
+            incrementSendCount();
+            written = true;
+        }
+        if (written) {
+            channel.flush();
+        }
+        if (outboundQueue.size() < outboundPolicy.getQueueCapacity()) {
+            overflowSince = 0;
+        }
+    }
+
+    /**
+     * 释放出站队列中的消息（连接关闭时调用，必须在 EventLoop 上调用）
+     */
+    void clearOutbound() {
+        Object packet;
+        while ((packet = outboundQueue.poll()) != null) {
+            ReferenceCountUtil.release(packet);
+        }
+    }
+
+    private static int queuedMessageType(Object queued) {
+        return queued instanceof EncodedFrame
+                ? ((EncodedFrame) queued).getMessageType() : ((ProtocolPacket) queued).getMessageType();
+    }
+
+    /**
+     * 出站队列中的消息数
+     */
+    public int getOutboundQueueSize() {
+        return outboundQueue.size();
+    }
+
+    private void closeSlowConsumer() {
+        clearOutbound();
+        channel.close();
     }
 
     /**
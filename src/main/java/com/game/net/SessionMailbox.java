@@ -0,0 +1,364 @@
+package com.game.net;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话邮箱
+ * 每个连接一个，将任务投递到共享的业务线程池，并保证同一连接的任务严格按投递顺序串行执行
+ * <p>
+ * 队列有界，超过容量的任务直接拒绝；任务可附带引用计数消息（如入站数据包），
+ * 由邮箱在任务执行完、被拒绝或邮箱关闭时统一释放。连接断开时调用 {@link #close()} 丢弃排队任务。
+ * 因队列已满或业务线程池拒绝而丢弃的消息先交给 {@link RejectionHandler}（如回复错误），再释放
+ * <p>
+ * 执行线程处理完一轮后仍有任务时，优先交给新的调度继续执行；业务线程池拒绝时（如虚拟线程许可耗尽，
+ * 而当前线程自身仍占用一个许可）留在当前线程继续执行，已接收的任务不会因此被丢弃
+ * <p>
+ * 异步任务（{@link AsyncTask}）返回未完成的 CompletionStage 时，邮箱保持占用直到其完成，
+ * 期间不执行后续任务，保证异步处理跨越回调时仍与同一连接的其他任务串行
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class SessionMailbox implements Executor {
+
+    /**
+     * 默认单次调度最多连续执行的任务数，避免单个连接长期占用业务线程
+     */
+    public static final int DEFAULT_TASKS_PER_RUN = 64;
+
+    /**
+     * 默认队列容量
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Executor executor;
+
+    /**
+     * 单次调度最多连续执行的任务数
+     */
+    private final int maxTasksPerRun;
+
+    /**
+     * 队列容量
+     */
+    private final int capacity;
+
+    /**
+     * 待执行任务队列
+     */
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 待执行任务数（ConcurrentLinkedQueue.size 需要遍历，单独计数）
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 是否已有线程在执行本邮箱的任务，或邮箱正等待异步任务完成
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 消息被拒绝时的回调，可为 null
+     */
+    private final RejectionHandler rejectionHandler;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    public SessionMailbox(Executor executor) {
+        this(executor, DEFAULT_TASKS_PER_RUN, DEFAULT_CAPACITY);
+    }
+
+    public SessionMailbox(Executor executor, int maxTasksPerRun) {
+        this(executor, maxTasksPerRun, DEFAULT_CAPACITY);
+    }
+
+    public SessionMailbox(Executor executor, int maxTasksPerRun, int capacity) {
+        this(executor, maxTasksPerRun, capacity, null);
+    }
+
+    public SessionMailbox(Executor executor, int maxTasksPerRun, int capacity, RejectionHandler rejectionHandler) {
+        if (maxTasksPerRun < 1) {
+            throw new IllegalArgumentException("maxTasksPerRun must be >= 1: " + maxTasksPerRun);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        }
+        this.executor = executor;
+        this.maxTasksPerRun = maxTasksPerRun;
+        this.capacity = capacity;
+        this.rejectionHandler = rejectionHandler;
+    }
+
+    /**
+     * 投递任务
+     *
+     * @throws RejectedExecutionException 队列已满或邮箱已关闭
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!offer(task, null)) {
+            throw new RejectedExecutionException("会话邮箱已满或已关闭");
+        }
+    }
+
+    /**
+     * 投递任务，附带的消息在任务执行完成后释放
+     *
+     * @param task    任务
+     * @param message 任务持有的引用计数消息，可为 null；所有权转移给邮箱
+     * @return 是否投递成功；失败（队列已满、邮箱已关闭或业务线程池拒绝）时 message 已被释放，
+     * 队列已满或业务线程池拒绝时释放前已交给 {@link RejectionHandler}
+     */
+    public boolean offer(Runnable task, ReferenceCounted message) {
+        return offerAsync(() -> {
+            task.run();
+            return null;
+        }, message);
+    }
+
+    /**
+     * 投递异步任务，任务返回的 CompletionStage 完成前不执行后续任务
+     * 附带的消息在任务同步部分执行完成后释放，异步回调中不能再访问
+     *
+     * @return 是否投递成功；失败时 message 已被释放
+     * @see #offer(Runnable, ReferenceCounted)
+     */
+    public boolean offerAsync(AsyncTask task, ReferenceCounted message) {
+        if (closed) {
+            ReferenceCountUtil.release(message);
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            reject(message);
+            return false;
+        }
+        tasks.offer(new Task(task, message));
+        if (closed) {
+            // 与 close 并发：close 可能已清空过队列，再清一次保证刚入队的任务被释放
+            discardPending(false);
+            return true;
+        }
+        return schedule();
+    }
+
+    /**
+     * 在邮箱外执行的异步任务占用邮箱，直到 stage 完成，期间投递的任务排队等待
+     * 用于空闲时在调用线程直接执行任务的快速路径；调用方须保证邮箱空闲，且与投递任务在同一线程
+     *
+     * @param stage 异步任务的完成通知，为 null 时不占用
+     * @throws IllegalStateException 邮箱不空闲
+     */
+    public void hold(CompletionStage<?> stage) {
+        if (stage == null) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("会话邮箱不空闲，无法占用");
+        }
+        stage.whenComplete((result, error) -> resume());
+    }
+
+    /**
+     * 关闭邮箱：之后投递的任务都被拒绝，排队中的任务不再执行并释放其消息
+     * 正在执行的任务不受影响
+     */
+    public void close() {
+        closed = true;
+        discardPending(false);
+    }
+
+    /**
+     * 邮箱是否空闲（没有排队任务且没有正在执行的任务）
+     */
+    public boolean isIdle() {
+        return !running.get() && tasks.isEmpty();
+    }
+
+    /**
+     * 待执行任务数
+     */
+    public int pendingTasks() {
+        return size.get();
+    }
+
+    /**
+     * 邮箱是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 调度执行排队任务
+     *
+     * @return 业务线程池拒绝时返回 false，此时排队任务已全部丢弃
+     */
+    private boolean schedule() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                int discarded = discardPending(true);
+                log.warn("业务线程池拒绝任务，丢弃待执行任务数: {}", discarded);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void drain() {
+        for (;;) {
+            for (int i = 0; i < maxTasksPerRun; i++) {
+                Task task = poll();
+                if (task == null) {
+                    break;
+                }
+                if (closed) {
+                    ReferenceCountUtil.release(task.message);
+                    continue;
+                }
+                CompletionStage<?> stage = task.run();
+                if (stage != null) {
+                    // 保持占用，异步任务完成后再继续执行后续任务
+                    stage.whenComplete((result, error) -> resume());
+                    return;
+                }
+            }
+            if (tasks.isEmpty()) {
+                running.set(false);
+                // 与 offer 并发：offer 看到 running 为 true 时不会调度，这里再检查一次
+                if (tasks.isEmpty() || !running.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+            // 仍持有占用，把剩余任务交给新的调度；业务线程池拒绝时留在当前线程继续执行
+            try {
+                executor.execute(this::drain);
+                return;
+            } catch (RejectedExecutionException e) {
+                log.debug("业务线程池拒绝续跑，在当前线程继续执行: pending={}", size.get());
+            }
+        }
+    }
+
+    /**
+     * 异步任务完成后释放占用，期间有新任务到达时重新调度
+     */
+    private void resume() {
+        running.set(false);
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private Task poll() {
+        Task task = tasks.poll();
+        if (task != null) {
+            size.decrementAndGet();
+        }
+        return task;
+    }
+
+    /**
+     * 丢弃所有排队任务并释放其消息
+     *
+     * @param rejected 是否因拒绝而丢弃（而非邮箱关闭），是则先交给 {@link RejectionHandler}
+     * @return 丢弃的任务数
+     */
+    private int discardPending(boolean rejected) {
+        int discarded = 0;
+        Task task;
+        while ((task = poll()) != null) {
+            if (rejected) {
+                reject(task.message);
+            } else {
+                ReferenceCountUtil.release(task.message);
+            }
+            discarded++;
+        }
+        return discarded;
+    }
+
+    /**
+     * 拒绝消息：交给回调后释放
+     */
+    private void reject(ReferenceCounted message) {
+        try {
+            if (rejectionHandler != null && message != null) {
+                rejectionHandler.rejected(message);
+            }
+        } catch (Throwable t) {
+            log.error("邮箱拒绝回调异常: {}", t.getMessage(), t);
+        } finally {
+            ReferenceCountUtil.release(message);
+        }
+    }
+
+    /**
+     * 消息被拒绝时的回调（队列已满或业务线程池拒绝），在消息释放前调用；邮箱关闭时丢弃的消息不回调
+     */
+    @FunctionalInterface
+    public interface RejectionHandler {
+
+        /**
+         * 处理被拒绝的消息（不要保留引用，回调返回后消息即被释放）
+         */
+        void rejected(ReferenceCounted message);
+    }
+
+    /**
+     * 异步任务
+     */
+    @FunctionalInterface
+    public interface AsyncTask {
+
+        /**
+         * 执行任务
+         *
+         * @return 任务已完成时为 null；否则返回任务完成的通知
+         */
+        CompletionStage<?> run();
+    }
+
+    /**
+     * 排队任务及其持有的消息
+     */
+    private static final class Task {
+
+        private final AsyncTask task;
+
+        private final ReferenceCounted message;
+
+        private Task(AsyncTask task, ReferenceCounted message) {
+            this.task = task;
+            this.message = message;
+        }
+
+        private CompletionStage<?> run() {
+            try {
+                return task.run();
+            } catch (Throwable t) {
+                log.error("邮箱任务执行异常: {}", t.getMessage(), t);
+                return null;
+            } finally {
+                ReferenceCountUtil.release(message);
+            }
+        }
+    }
+}
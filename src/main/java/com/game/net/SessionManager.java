@@ -1,15 +1,31 @@
 package com.game.net;
 
+import com.game.db.RoleCache;
+import com.game.metrics.DispatchMetrics;
+import com.game.util.ConcurrentLongMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelId;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 会话管理器
  * 管理所有客户端连接会话
+ * <p>
+ * 会话本身挂在 Channel 的 {@link Session#KEY} 属性上，按连接获取会话无需查全局表；
+ * 全局表只作为按用户查找和广播遍历的索引
  *
  * @author Harleysama
  */
@@ -17,31 +33,105 @@ import java.util.concurrent.ConcurrentHashMap;
 public class SessionManager {
 
     /**
-     * Channel ID -> Session 映射
+     * Channel ID -> Session 索引（用于广播和在线统计）
      */
     private static final Map<ChannelId, Session> sessions = new ConcurrentHashMap<>();
 
     /**
-     * User ID -> Channel ID 映射（用于快速查找用户）
+     * User ID -> Session 索引（用于私聊、定向推送等按用户查找）
      */
-    private static final Map<Long, ChannelId> userChannelMap = new ConcurrentHashMap<>();
+    private static final ConcurrentLongMap<Session> userSessions = new ConcurrentLongMap<>(4096, 64);
 
     /**
-     * 添加会话
+     * Role ID -> Session 索引（用于按角色查找）
      */
-    public static void addSession(Channel channel) {
-        Session session = new Session(channel);
+    private static final ConcurrentLongMap<Session> roleSessions = new ConcurrentLongMap<>(4096, 64);
+
+    /**
+     * 超过写缓冲高水位的会话数
+     */
+    private static final AtomicInteger aboveHighWaterMarkCount = new AtomicInteger();
+
+    /**
+     * 新会话使用的出站队列策略
+     */
+    private static volatile OutboundPolicy outboundPolicy = OutboundPolicy.DEFAULT;
+
+    /**
+     * 空闲连接回收器（未设置时不回收）
+     */
+    private static volatile IdleReaper idleReaper;
+
+    /**
+     * 角色缓存（未设置时下线不写回）
+     */
+    private static volatile RoleCache roleCache;
+
+    /**
+     * 设置出站队列策略（服务器启动时调用）
+     */
+    public static void setOutboundPolicy(OutboundPolicy policy) {
+        outboundPolicy = policy;
+    }
+
+    /**
+     * 设置空闲连接回收器（服务器启动时调用）
+     */
+    public static void setIdleReaper(IdleReaper reaper) {
+        idleReaper = reaper;
+    }
+
+    /**
+     * 设置角色缓存，角色下线时通知其写回并淘汰（服务器启动时调用）
+     */
+    public static void setRoleCache(RoleCache cache) {
+        roleCache = cache;
+    }
+
+    /**
+     * 添加会话（连接建立时调用）
+     */
+    public static Session addSession(Channel channel) {
+        Session session = new Session(channel, outboundPolicy);
+        channel.attr(Session.KEY).set(session);
         sessions.put(channel.id(), session);
+        IdleReaper reaper = idleReaper;
+        if (reaper != null) {
+            reaper.register(session);
+        }
         log.debug("添加会话: channelId={}", channel.id());
+        return session;
+    }
+
+    /**
+     * 出站队列开始溢出时登记到空闲回收器，按刻度检查是否持续溢出（在 EventLoop 上调用）
+     */
+    static void watchOverflow(Session session) {
+        IdleReaper reaper = idleReaper;
+        if (reaper != null) {
+            reaper.watchOverflow(session);
+        }
     }
 
     /**
      * 移除会话
      */
     public static void removeSession(Channel channel) {
-        Session session = sessions.remove(channel.id());
-        if (session != null && session.getUserId() != null) {
-            userChannelMap.remove(session.getUserId());
+        Session session = channel.attr(Session.KEY).getAndSet(null);
+        if (session != null) {
+            sessions.remove(channel.id(), session);
+            // 同一用户/角色可能已在新连接上重新绑定，只移除指向本会话的索引
+            if (session.getUserId() != null) {
+                userSessions.remove(session.getUserId(), session);
+            }
+            if (session.getRoleId() != null) {
+                releaseRole(session.getRoleId(), session);
+            }
+            if (session.isAboveHighWaterMark()) {
+                session.setAboveHighWaterMark(false);
+                aboveHighWaterMarkCount.decrementAndGet();
+            }
+            session.clearOutbound();
         }
         log.debug("移除会话: channelId={}", channel.id());
     }
@@ -50,37 +140,134 @@ public class SessionManager {
      * 获取会话
      */
     public static Session getSession(Channel channel) {
-        return sessions.get(channel.id());
+        return channel.attr(Session.KEY).get();
     }
 
     /**
-     * 根据用户ID获取会话
+     * 向连接发送消息
+     * 经由会话的出站队列写出；会话已移除（连接关闭）时直接释放
      */
-    public static Session getSessionByUserId(Long userId) {
-        ChannelId channelId = userChannelMap.get(userId);
-        if (channelId == null) {
-            return null;
+    public static void send(Channel channel, ProtocolPacket packet) {
+        Session session = getSession(channel);
+        if (session != null) {
+            session.send(packet);
+        } else {
+            ReferenceCountUtil.release(packet);
         }
-        return sessions.get(channelId);
+    }
+
+    /**
+     * 根据用户ID获取会话
+     */
+    public static Session getSessionByUserId(long userId) {
+        return userSessions.get(userId);
+    }
+
+    /**
+     * 根据角色ID获取会话
+     */
+    public static Session getSessionByRoleId(long roleId) {
+        return roleSessions.get(roleId);
     }
 
     /**
      * 绑定用户
      */
     public static void bindUser(Channel channel, Long userId) {
-        Session session = sessions.get(channel.id());
+        Session session = getSession(channel);
         if (session != null) {
             // 先解绑旧用户
             if (session.getUserId() != null) {
-                userChannelMap.remove(session.getUserId());
+                userSessions.remove(session.getUserId(), session);
             }
             // 绑定新用户
             session.setUserId(userId);
-            userChannelMap.put(userId, channel.id());
+            userSessions.put(userId, session);
             log.info("绑定用户: userId={}, channelId={}", userId, channel.id());
         }
     }
 
+    /**
+     * 绑定角色
+     * 可在业务线程调用；绑定时连接已关闭（会话已移除）则立即释放该角色，角色缓存随之写回并淘汰
+     *
+     * @return 是否绑定成功
+     */
+    public static boolean bindRole(Channel channel, Long roleId) {
+        Session session = getSession(channel);
+        if (session == null) {
+            releaseUnboundRole(roleId);
+            return false;
+        }
+        // 先解绑旧角色
+        if (session.getRoleId() != null && !session.getRoleId().equals(roleId)) {
+            releaseRole(session.getRoleId(), session);
+        }
+        // 绑定新角色
+        session.setRoleId(roleId);
+        roleSessions.put(roleId, session);
+
+        // 与 removeSession 并发时，removeSession 可能没有看到刚绑定的角色
+        if (getSession(channel) != session) {
+            releaseRole(roleId, session);
+            return false;
+        }
+        log.info("绑定角色: roleId={}, channelId={}", roleId, channel.id());
+        return true;
+    }
+
+    /**
+     * 角色未能绑定到任何会话时通知角色缓存下线
+     */
+    private static void releaseUnboundRole(long roleId) {
+        RoleCache cache = roleCache;
+        if (cache != null && roleSessions.get(roleId) == null) {
+            cache.release(roleId);
+        }
+    }
+
+    /**
+     * 解除角色索引，角色因此下线时通知角色缓存写回
+     */
+    private static void releaseRole(long roleId, Session session) {
+        if (roleSessions.remove(roleId, session)) {
+            RoleCache cache = roleCache;
+            if (cache != null) {
+                cache.release(roleId);
+            }
+        }
+    }
+
+    /**
+     * 连接可写状态变化（在连接所属 EventLoop 上调用）
+     * 恢复可写时写出出站队列中积压的消息
+     */
+    public static void onWritabilityChanged(Channel channel) {
+        Session session = getSession(channel);
+        if (session == null) {
+            return;
+        }
+        boolean above = !channel.isWritable();
+        if (above != session.isAboveHighWaterMark()) {
+            session.setAboveHighWaterMark(above);
+            if (above) {
+                aboveHighWaterMarkCount.incrementAndGet();
+            } else {
+                aboveHighWaterMarkCount.decrementAndGet();
+            }
+        }
+        if (!above) {
+            session.drainOutbound();
+        }
+    }
+
+    /**
+     * 获取超过写缓冲高水位的会话数
+     */
+    public static int getAboveHighWaterMarkCount() {
+        return aboveHighWaterMarkCount.get();
+    }
+
     /**
      * 获取在线用户数
      */
@@ -90,12 +277,106 @@ public class SessionManager {
 
     /**
      * 广播消息给所有在线用户
+     * <p>
+     * 每种帧选项（是否压缩）只编码一次，各连接写入其 retainedDuplicate（共享同一块内存）；
+     * 会话按 EventLoop 分组，每个 EventLoop 只提交一个任务，先全部 write 再逐个 flush。
+     * 不可写的连接经由各自的出站队列发送，慢速连接不会无限堆积
      */
     public static void broadcast(ProtocolPacket packet) {
-        sessions.values().forEach(session -> {
-            if (session.getChannel().isActive()) {
-                session.getChannel().writeAndFlush(packet);
+        // 按帧选项、EventLoop 分组
+        Map<FrameOptions, Map<EventLoop, List<Session>>> sessionsByOptions = new HashMap<>();
+        for (Session session : sessions.values()) {
+            Channel channel = session.getChannel();
+            if (channel.isActive()) {
+                sessionsByOptions.computeIfAbsent(FrameOptions.of(channel), options -> new IdentityHashMap<>())
+                        .computeIfAbsent(channel.eventLoop(), loop -> new ArrayList<>())
+                        .add(session);
             }
-        });
+        }
+
+        for (Map.Entry<FrameOptions, Map<EventLoop, List<Session>>> entry : sessionsByOptions.entrySet()) {
+            broadcastFrame(packet, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 按指定帧选项编码一次，分发给各 EventLoop 上的会话
+     * 需要压缩时编码在目标 EventLoop 之一上执行，压缩器只在 EventLoop 线程上分配（见 {@link FrameCompression}）
+     */
+    private static void broadcastFrame(ProtocolPacket packet, FrameOptions options,
+                                       Map<EventLoop, List<Session>> sessionsByLoop) {
+        if (options.isCompressionEnabled()) {
+            EventLoop encodeLoop = null;
+            for (EventLoop loop : sessionsByLoop.keySet()) {
+                if (loop.inEventLoop()) {
+                    encodeLoop = loop;
+                    break;
+                }
+                if (encodeLoop == null) {
+                    encodeLoop = loop;
+                }
+            }
+            if (encodeLoop != null && !encodeLoop.inEventLoop()) {
+                // 数据包在编码完成前不能被调用方释放
+                packet.retain();
+                encodeLoop.execute(() -> {
+                    try {
+                        encodeAndDispatch(packet, options, sessionsByLoop);
+                    } finally {
+                        packet.release();
+                    }
+                });
+                return;
+            }
+        }
+        encodeAndDispatch(packet, options, sessionsByLoop);
+    }
+
+    private static void encodeAndDispatch(ProtocolPacket packet, FrameOptions options,
+                                          Map<EventLoop, List<Session>> sessionsByLoop) {
+        ByteBuf frame;
+        try {
+            frame = PacketFrameEncoder.encodeFrame(ByteBufAllocator.DEFAULT, packet, options);
+        } catch (IOException e) {
+            log.error("广播消息编码失败: type={}, error={}", packet.getMessageType(), e.getMessage());
+            return;
+        }
+
+        try {
+            int messageType = packet.getMessageType();
+            int dataLength = packet.getDataLength();
+            for (Map.Entry<EventLoop, List<Session>> entry : sessionsByLoop.entrySet()) {
+                EventLoop loop = entry.getKey();
+                List<Session> loopSessions = entry.getValue();
+                ByteBuf shared = frame.retain();
+                if (loop.inEventLoop()) {
+                    writeFrames(loopSessions, messageType, dataLength, shared);
+                } else {
+                    loop.execute(() -> writeFrames(loopSessions, messageType, dataLength, shared));
+                }
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * 在 EventLoop 上把同一帧写给一组会话，全部写完后统一 flush
+     */
+    private static void writeFrames(List<Session> loopSessions, int messageType, int dataLength, ByteBuf frame) {
+        try {
+            boolean[] written = new boolean[loopSessions.size()];
+            for (int i = 0; i < loopSessions.size(); i++) {
+                written[i] = loopSessions.get(i).writeFrame(messageType, frame.retainedDuplicate());
+            }
+            for (int i = 0; i < loopSessions.size(); i++) {
+                if (written[i]) {
+                    DispatchMetrics.recordOutbound(messageType, dataLength);
+                    loopSessions.get(i).getChannel().flush();
+                }
+            }
+        } finally {
+            frame.release();
+        }
     }
 }
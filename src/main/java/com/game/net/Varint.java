@@ -0,0 +1,71 @@
+package com.game.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Protobuf 风格的 varint 编解码工具
+ * 每字节低 7 位为数据，最高位表示后续还有字节；int 最多占 5 字节
+ *
+ * @author Harleysama
+ */
+public final class Varint {
+
+    /**
+     * int 的 varint 最大字节数
+     */
+    public static final int MAX_SIZE = 5;
+
+    private Varint() {
+    }
+
+    /**
+     * 计算 varint 编码后的字节数
+     */
+    public static int computeSize(int value) {
+        if ((value & (~0 << 7)) == 0) {
+            return 1;
+        }
+        if ((value & (~0 << 14)) == 0) {
+            return 2;
+        }
+        if ((value & (~0 << 21)) == 0) {
+            return 3;
+        }
+        if ((value & (~0 << 28)) == 0) {
+            return 4;
+        }
+        return 5;
+    }
+
+    /**
+     * 写入 varint
+     */
+    public static void write(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * 从完整的缓冲区中读取 varint
+     *
+     * @throws CorruptedFrameException 数据不足或超过 5 字节
+     */
+    public static int read(ByteBuf in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!in.isReadable()) {
+                throw new CorruptedFrameException("varint 数据不完整");
+            }
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("varint 超过 " + MAX_SIZE + " 字节");
+    }
+}
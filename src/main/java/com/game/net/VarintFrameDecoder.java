@@ -0,0 +1,133 @@
+package com.game.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 紧凑帧头解码器
+ * 解析协议格式: [数据长度(varint)][消息类型 | 标志(varint)][数据体]
+ * <p>
+ * 按状态机逐字节消费帧头，跨多次读事件的半个 varint 保存在解码器状态中，
+ * 不使用 markReaderIndex/resetReaderIndex 回退重扫。
+ * 定长帧头解码器解码到协商为紧凑帧头的握手帧时，就地替换为本解码器并转交剩余字节。
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class VarintFrameDecoder extends PacketFrameDecoder {
+
+    private static final int STATE_LENGTH = 0;
+    private static final int STATE_TYPE = 1;
+    private static final int STATE_BODY = 2;
+    private static final int STATE_DISCARD = 3;
+
+    /**
+     * 当前解码状态
+     */
+    private int state = STATE_LENGTH;
+
+    /**
+     * 正在读取的 varint 的已累计值
+     */
+    private int varintValue;
+
+    /**
+     * 正在读取的 varint 的下一字节位移
+     */
+    private int varintShift;
+
+    /**
+     * 当前帧数据体长度
+     */
+    private int dataLength;
+
+    /**
+     * 当前帧的消息类型及标志位（定长帧头格式）
+     */
+    private int typeField;
+
+    public VarintFrameDecoder(boolean zeroCopy) {
+        super(zeroCopy);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        switch (state) {
+            case STATE_LENGTH:
+                if (!readVarint(ctx, in)) {
+                    return;
+                }
+                dataLength = takeVarint();
+                // 安全检查：防止恶意大包攻击
+                if (dataLength <= 0 || dataLength > MAX_FRAME_LENGTH) {
+                    discard(ctx, in, "检测到非法数据包长度: " + dataLength);
+                    return;
+                }
+                state = STATE_TYPE;
+                // fall through
+            case STATE_TYPE:
+                if (!readVarint(ctx, in)) {
+                    return;
+                }
+                int compactType = takeVarint();
+                if (!FrameOptions.isValidCompactType(compactType)) {
+                    discard(ctx, in, "检测到非法消息类型: " + Integer.toHexString(compactType));
+                    return;
+                }
+                typeField = FrameOptions.fromCompactType(compactType);
+                state = STATE_BODY;
+                // fall through
+            case STATE_BODY:
+                // 数据不完整，等待更多数据（帧头已消费，无需回退）
+                if (in.readableBytes() < dataLength) {
+                    return;
+                }
+                state = STATE_LENGTH;
+                readBody(ctx, in, typeField, dataLength, out);
+                return;
+            default:
+                in.skipBytes(in.readableBytes());
+        }
+    }
+
+    /**
+     * 继续读取当前 varint
+     *
+     * @return 是否已读完整
+     */
+    private boolean readVarint(ChannelHandlerContext ctx, ByteBuf in) {
+        while (in.isReadable()) {
+            byte b = in.readByte();
+            varintValue |= (b & 0x7F) << varintShift;
+            if (b >= 0) {
+                return true;
+            }
+            varintShift += 7;
+            if (varintShift >= Varint.MAX_SIZE * 7) {
+                discard(ctx, in, "检测到非法 varint 帧头");
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private int takeVarint() {
+        int value = varintValue;
+        varintValue = 0;
+        varintShift = 0;
+        return value;
+    }
+
+    /**
+     * 丢弃后续所有数据并关闭连接
+     */
+    private void discard(ChannelHandlerContext ctx, ByteBuf in, String reason) {
+        log.error("{}, 连接将被关闭!", reason);
+        state = STATE_DISCARD;
+        in.skipBytes(in.readableBytes());
+        ctx.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.game.net;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程执行器
+ * 每个任务运行在独立的虚拟线程上，并通过信号量限制同时执行的任务数，
+ * 防止大量阻塞任务同时压向数据库等下游资源
+ * <p>
+ * 提交时（通常在 IO 线程上）先获取许可再创建虚拟线程，许可耗尽时抛出 RejectedExecutionException，
+ * 因此存活的虚拟线程数同样不超过上限。
+ * 任务在自身的虚拟线程内提交后续任务时，本线程的许可尚未归还；会话邮箱据此在被拒绝时留在当前线程继续执行
+ *
+ * @author Harleysama
+ */
+@Slf4j
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    /**
+     * 同时执行的任务数上限
+     */
+    private final int maxInFlight;
+
+    private final Semaphore permits;
+
+    public VirtualThreadExecutor(String namePrefix, int maxInFlight) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 0).factory());
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // 调用方可能是 IO 线程，不能阻塞等待许可
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("虚拟线程任务数已达上限: " + maxInFlight);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前正在执行的任务数
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
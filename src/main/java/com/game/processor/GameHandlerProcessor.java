@@ -0,0 +1,238 @@
+package com.game.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 消息处理器注解处理器
+ * 编译期收集所有 @GameHandler 处理器，生成静态注册表 {@code com.game.handler.GeneratedHandlerRegistry}，
+ * 启动时无需扫描类路径，fat jar 中同样可用；重复的 messageType 直接报编译错误
+ * <p>
+ * 本类在 pom.xml 中先于其余源码单独编译，因此不能依赖项目内的任何类（包括 Lombok）
+ *
+ * @author Harleysama
+ */
+@SupportedAnnotationTypes(GameHandlerProcessor.GAME_HANDLER)
+public class GameHandlerProcessor extends AbstractProcessor {
+
+    static final String GAME_HANDLER = "com.game.handler.GameHandler";
+    private static final String MESSAGE_HANDLER = "com.game.handler.MessageHandler";
+    private static final String UNORDERED_HANDLER = "com.game.handler.UnorderedMessageHandler";
+    private static final String REGISTRY_PACKAGE = "com.game.handler";
+    private static final String REGISTRY_CLASS = "GeneratedHandlerRegistry";
+
+    private Filer filer;
+    private Messager messager;
+
+    /**
+     * 是否已生成注册表（只在第一轮生成一次）
+     */
+    private boolean generated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement gameHandler = processingEnv.getElementUtils().getTypeElement(GAME_HANDLER);
+        if (gameHandler == null || roundEnv.processingOver()) {
+            return false;
+        }
+
+        Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(gameHandler);
+        if (generated) {
+            if (!elements.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "@GameHandler 不能用于其他注解处理器生成的类", elements.iterator().next());
+            }
+            return false;
+        }
+        generated = true;
+
+        // messageType -> 处理器定义，TreeMap 保证生成代码的顺序稳定
+        Map<Integer, HandlerDefinition> definitions = new TreeMap<>();
+        for (Element element : elements) {
+            HandlerDefinition definition = toDefinition(element, gameHandler);
+            if (definition == null) {
+                continue;
+            }
+            HandlerDefinition existing = definitions.putIfAbsent(definition.messageType, definition);
+            if (existing != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "重复的 messageType=" + definition.messageType + "，已由 "
+                                + existing.className + " 注册", element);
+            }
+        }
+
+        writeRegistry(new ArrayList<>(definitions.values()));
+        return false;
+    }
+
+    /**
+     * 校验被注解的类并读取注解参数
+     */
+    private HandlerDefinition toDefinition(Element element, TypeElement gameHandler) {
+        if (element.getKind() != ElementKind.CLASS) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GameHandler 只能用于类", element);
+            return null;
+        }
+
+        TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || !type.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GameHandler 处理器必须是 public 的非抽象类", element);
+            return null;
+        }
+
+        TypeElement messageHandler = processingEnv.getElementUtils().getTypeElement(MESSAGE_HANDLER);
+        if (messageHandler != null && !processingEnv.getTypeUtils().isAssignable(
+                type.asType(), processingEnv.getTypeUtils().erasure(messageHandler.asType()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GameHandler 处理器必须实现 " + MESSAGE_HANDLER, element);
+            return null;
+        }
+
+        boolean hasDefaultConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                hasDefaultConstructor = true;
+                break;
+            }
+        }
+        if (!hasDefaultConstructor) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GameHandler 处理器必须有 public 无参构造方法", element);
+            return null;
+        }
+
+        Integer messageType = null;
+        String dispatch = "IO_THREAD";
+        boolean requireLogin = false;
+        boolean ordered = true;
+
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().asElement().equals(gameHandler)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                String name = entry.getKey().getSimpleName().toString();
+                Object value = entry.getValue().getValue();
+                switch (name) {
+                    case "messageType" -> messageType = (Integer) value;
+                    case "dispatch" -> dispatch = ((VariableElement) value).getSimpleName().toString();
+                    case "requireLogin" -> requireLogin = (Boolean) value;
+                    case "ordered" -> ordered = (Boolean) value;
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        if (messageType == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GameHandler 缺少 messageType", element);
+            return null;
+        }
+
+        // 并发执行的处理器不能拿到会话对象
+        TypeElement unorderedHandler = processingEnv.getElementUtils().getTypeElement(UNORDERED_HANDLER);
+        if (!ordered && unorderedHandler != null && !processingEnv.getTypeUtils().isAssignable(
+                type.asType(), processingEnv.getTypeUtils().erasure(unorderedHandler.asType()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@GameHandler(ordered = false) 的处理器必须继承 " + UNORDERED_HANDLER, element);
+            return null;
+        }
+
+        return new HandlerDefinition(messageType, type.getQualifiedName().toString(), dispatch,
+                requireLogin, ordered, type);
+    }
+
+    /**
+     * 生成注册表源码
+     */
+    private void writeRegistry(List<HandlerDefinition> definitions) {
+        Element[] originating = new Element[definitions.size()];
+        for (int i = 0; i < definitions.size(); i++) {
+            originating[i] = definitions.get(i).element;
+        }
+
+        try {
+            JavaFileObject file = filer.createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_CLASS, originating);
+            try (Writer writer = file.openWriter()) {
+                writer.write("package " + REGISTRY_PACKAGE + ";\n\n");
+                writer.write("/**\n");
+                writer.write(" * 消息处理器注册表\n");
+                writer.write(" * 由 " + GameHandlerProcessor.class.getName() + " 在编译期生成，请勿手动修改\n");
+                writer.write(" */\n");
+                writer.write("public final class " + REGISTRY_CLASS + " implements HandlerRegistry {\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public void registerAll(MessageHandlerManager manager) {\n");
+                for (HandlerDefinition definition : definitions) {
+                    writer.write("        manager.register(new HandlerEntry(" + definition.messageType
+                            + ", new " + definition.className + "(), " + definition.requireLogin
+                            + ", DispatchMode." + definition.dispatch + ", " + definition.ordered + "));\n");
+                }
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public int size() {\n");
+                writer.write("        return " + definitions.size() + ";\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "生成处理器注册表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 处理器定义
+     */
+    private static final class HandlerDefinition {
+
+        private final int messageType;
+        private final String className;
+        private final String dispatch;
+        private final boolean requireLogin;
+        private final boolean ordered;
+        private final TypeElement element;
+
+        private HandlerDefinition(int messageType, String className, String dispatch,
+                                  boolean requireLogin, boolean ordered, TypeElement element) {
+            this.messageType = messageType;
+            this.className = className;
+            this.dispatch = dispatch;
+            this.requireLogin = requireLogin;
+            this.ordered = ordered;
+            this.element = element;
+        }
+    }
+}
@@ -56,6 +56,14 @@ public final class CommonProto {
      * <code>HANDSHAKE_RESP = 3;</code>
      */
     HANDSHAKE_RESP(3),
+    /**
+     * <pre>
+     * 批量消息帧（数据体为若干 [类型][长度][数据体] 子消息）
+     * </pre>
+     *
+     * <code>BATCH = 5;</code>
+     */
+    BATCH(5),
     /**
      * <pre>
      * 认证相关
@@ -243,6 +251,14 @@ public final class CommonProto {
      * <code>HANDSHAKE_RESP = 3;</code>
      */
     public static final int HANDSHAKE_RESP_VALUE = 3;
+    /**
+     * <pre>
+     * 批量消息帧（数据体为若干 [类型][长度][数据体] 子消息）
+     * </pre>
+     *
+     * <code>BATCH = 5;</code>
+     */
+    public static final int BATCH_VALUE = 5;
     /**
      * <pre>
      * 认证相关
@@ -425,6 +441,7 @@ public final class CommonProto {
         case 1: return HEARTBEAT;
         case 2: return HANDSHAKE;
         case 3: return HANDSHAKE_RESP;
+        case 5: return BATCH;
         case 100: return LOGIN;
         case 101: return LOGIN_RESP;
         case 102: return LOGOUT;
@@ -747,6 +764,262 @@ public final class CommonProto {
     // @@protoc_insertion_point(enum_scope:com.game.protocol.ErrorCode)
   }
 
+  /**
+   * <pre>
+   * 帧压缩算法
+   * </pre>
+   *
+   * Protobuf enum {@code com.game.protocol.CompressionType}
+   */
+  public enum CompressionType
+      implements com.google.protobuf.ProtocolMessageEnum {
+    /**
+     * <pre>
+     * 不压缩
+     * </pre>
+     *
+     * <code>COMPRESSION_NONE = 0;</code>
+     */
+    COMPRESSION_NONE(0),
+    /**
+     * <pre>
+     * JDK Deflater (zlib)
+     * </pre>
+     *
+     * <code>COMPRESSION_DEFLATE = 1;</code>
+     */
+    COMPRESSION_DEFLATE(1),
+    UNRECOGNIZED(-1),
+    ;
+
+    /**
+     * <pre>
+     * 不压缩
+     * </pre>
+     *
+     * <code>COMPRESSION_NONE = 0;</code>
+     */
+    public static final int COMPRESSION_NONE_VALUE = 0;
+    /**
+     * <pre>
+     * JDK Deflater (zlib)
+     * </pre>
+     *
+     * <code>COMPRESSION_DEFLATE = 1;</code>
+     */
+    public static final int COMPRESSION_DEFLATE_VALUE = 1;
+
+
+    public final int getNumber() {
+      if (this == UNRECOGNIZED) {
+        throw new java.lang.IllegalArgumentException(
+            "Can't get the number of an unknown enum value.");
+      }
+      return value;
+    }
+
+    /**
+     * @param value The numeric wire value of the corresponding enum entry.
+     * @return The enum associated with the given numeric wire value.
+     * @deprecated Use {@link #forNumber(int)} instead.
+     */
+    @java.lang.Deprecated
+    public static CompressionType valueOf(int value) {
+      return forNumber(value);
+    }
+
+    /**
+     * @param value The numeric wire value of the corresponding enum entry.
+     * @return The enum associated with the given numeric wire value.
+     */
+    public static CompressionType forNumber(int value) {
+      switch (value) {
+        case 0: return COMPRESSION_NONE;
+        case 1: return COMPRESSION_DEFLATE;
+        default: return null;
+      }
+    }
+
+    public static com.google.protobuf.Internal.EnumLiteMap<CompressionType>
+        internalGetValueMap() {
+      return internalValueMap;
+    }
+    private static final com.google.protobuf.Internal.EnumLiteMap<
+        CompressionType> internalValueMap =
+          new com.google.protobuf.Internal.EnumLiteMap<CompressionType>() {
+            public CompressionType findValueByNumber(int number) {
+              return CompressionType.forNumber(number);
+            }
+          };
+
+    public final com.google.protobuf.Descriptors.EnumValueDescriptor
+        getValueDescriptor() {
+      if (this == UNRECOGNIZED) {
+        throw new java.lang.IllegalStateException(
+            "Can't get the descriptor of an unrecognized enum value.");
+      }
+      return getDescriptor().getValues().get(ordinal());
+    }
+    public final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptorForType() {
+      return getDescriptor();
+    }
+    public static final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptor() {
+      return com.game.protocol.generated.CommonProto.getDescriptor().getEnumTypes().get(2);
+    }
+
+    private static final CompressionType[] VALUES = values();
+
+    public static CompressionType valueOf(
+        com.google.protobuf.Descriptors.EnumValueDescriptor desc) {
+      if (desc.getType() != getDescriptor()) {
+        throw new java.lang.IllegalArgumentException(
+          "EnumValueDescriptor is not for this type.");
+      }
+      if (desc.getIndex() == -1) {
+        return UNRECOGNIZED;
+      }
+      return VALUES[desc.getIndex()];
+    }
+
+    private final int value;
+
+    private CompressionType(int value) {
+      this.value = value;
+    }
+
+    // @@protoc_insertion_point(enum_scope:com.game.protocol.CompressionType)
+  }
+
+  /**
+   * <pre>
+   * 帧头格式
+   * </pre>
+   *
+   * Protobuf enum {@code com.game.protocol.FrameHeaderMode}
+   */
+  public enum FrameHeaderMode
+      implements com.google.protobuf.ProtocolMessageEnum {
+    /**
+     * <pre>
+     * 定长帧头: [长度(4字节)][类型(4字节)]
+     * </pre>
+     *
+     * <code>HEADER_FIXED = 0;</code>
+     */
+    HEADER_FIXED(0),
+    /**
+     * <pre>
+     * 紧凑帧头: [长度(varint)][类型与标志(varint)]
+     * </pre>
+     *
+     * <code>HEADER_VARINT = 1;</code>
+     */
+    HEADER_VARINT(1),
+    UNRECOGNIZED(-1),
+    ;
+
+    /**
+     * <pre>
+     * 定长帧头: [长度(4字节)][类型(4字节)]
+     * </pre>
+     *
+     * <code>HEADER_FIXED = 0;</code>
+     */
+    public static final int HEADER_FIXED_VALUE = 0;
+    /**
+     * <pre>
+     * 紧凑帧头: [长度(varint)][类型与标志(varint)]
+     * </pre>
+     *
+     * <code>HEADER_VARINT = 1;</code>
+     */
+    public static final int HEADER_VARINT_VALUE = 1;
+
+
+    public final int getNumber() {
+      if (this == UNRECOGNIZED) {
+        throw new java.lang.IllegalArgumentException(
+            "Can't get the number of an unknown enum value.");
+      }
+      return value;
+    }
+
+    /**
+     * @param value The numeric wire value of the corresponding enum entry.
+     * @return The enum associated with the given numeric wire value.
+     * @deprecated Use {@link #forNumber(int)} instead.
+     */
+    @java.lang.Deprecated
+    public static FrameHeaderMode valueOf(int value) {
+      return forNumber(value);
+    }
+
+    /**
+     * @param value The numeric wire value of the corresponding enum entry.
+     * @return The enum associated with the given numeric wire value.
+     */
+    public static FrameHeaderMode forNumber(int value) {
+      switch (value) {
+        case 0: return HEADER_FIXED;
+        case 1: return HEADER_VARINT;
+        default: return null;
+      }
+    }
+
+    public static com.google.protobuf.Internal.EnumLiteMap<FrameHeaderMode>
+        internalGetValueMap() {
+      return internalValueMap;
+    }
+    private static final com.google.protobuf.Internal.EnumLiteMap<
+        FrameHeaderMode> internalValueMap =
+          new com.google.protobuf.Internal.EnumLiteMap<FrameHeaderMode>() {
+            public FrameHeaderMode findValueByNumber(int number) {
+              return FrameHeaderMode.forNumber(number);
+            }
+          };
+
+    public final com.google.protobuf.Descriptors.EnumValueDescriptor
+        getValueDescriptor() {
+      if (this == UNRECOGNIZED) {
+        throw new java.lang.IllegalStateException(
+            "Can't get the descriptor of an unrecognized enum value.");
+      }
+      return getDescriptor().getValues().get(ordinal());
+    }
+    public final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptorForType() {
+      return getDescriptor();
+    }
+    public static final com.google.protobuf.Descriptors.EnumDescriptor
+        getDescriptor() {
+      return com.game.protocol.generated.CommonProto.getDescriptor().getEnumTypes().get(3);
+    }
+
+    private static final FrameHeaderMode[] VALUES = values();
+
+    public static FrameHeaderMode valueOf(
+        com.google.protobuf.Descriptors.EnumValueDescriptor desc) {
+      if (desc.getType() != getDescriptor()) {
+        throw new java.lang.IllegalArgumentException(
+          "EnumValueDescriptor is not for this type.");
+      }
+      if (desc.getIndex() == -1) {
+        return UNRECOGNIZED;
+      }
+      return VALUES[desc.getIndex()];
+    }
+
+    private final int value;
+
+    private FrameHeaderMode(int value) {
+      this.value = value;
+    }
+
+    // @@protoc_insertion_point(enum_scope:com.game.protocol.FrameHeaderMode)
+  }
+
   public interface MessageHeaderOrBuilder extends
       // @@protoc_insertion_point(interface_extends:com.game.protocol.MessageHeader)
       com.google.protobuf.MessageOrBuilder {
@@ -2136,60 +2409,170 @@ public final class CommonProto {
      */
     com.google.protobuf.ByteString
         getPlatformBytes();
-  }
-  /**
-   * <pre>
-   * 握手请求
-   * </pre>
-   *
-   * Protobuf type {@code com.game.protocol.Handshake}
-   */
-  public static final class Handshake extends
-      com.google.protobuf.GeneratedMessageV3 implements
-      // @@protoc_insertion_point(message_implements:com.game.protocol.Handshake)
-      HandshakeOrBuilder {
-  private static final long serialVersionUID = 0L;
-    // Use Handshake.newBuilder() to construct.
-    private Handshake(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
-      super(builder);
-    }
-    private Handshake() {
-      deviceId_ = "";
-      platform_ = "";
-    }
-
-    @java.lang.Override
-    @SuppressWarnings({"unused"})
-    protected java.lang.Object newInstance(
-        UnusedPrivateParameter unused) {
-      return new Handshake();
-    }
-
-    public static final com.google.protobuf.Descriptors.Descriptor
-        getDescriptor() {
-      return com.game.protocol.generated.CommonProto.internal_static_com_game_protocol_Handshake_descriptor;
-    }
-
-    @java.lang.Override
-    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
-        internalGetFieldAccessorTable() {
-      return com.game.protocol.generated.CommonProto.internal_static_com_game_protocol_Handshake_fieldAccessorTable
-          .ensureFieldAccessorsInitialized(
-              com.game.protocol.generated.CommonProto.Handshake.class, com.game.protocol.generated.CommonProto.Handshake.Builder.class);
-    }
 
-    public static final int VERSION_FIELD_NUMBER = 1;
-    private int version_ = 0;
     /**
      * <pre>
-     * 客户端版本
+     * 客户端支持的压缩算法
      * </pre>
      *
-     * <code>int32 version = 1;</code>
-     * @return The version.
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return A list containing the compressions.
      */
-    @java.lang.Override
-    public int getVersion() {
+    java.util.List<com.game.protocol.generated.CommonProto.CompressionType> getCompressionsList();
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return The count of compressions.
+     */
+    int getCompressionsCount();
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @param index The index of the element to return.
+     * @return The compressions at the given index.
+     */
+    com.game.protocol.generated.CommonProto.CompressionType getCompressions(int index);
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return A list containing the enum numeric values on the wire for compressions.
+     */
+    java.util.List<java.lang.Integer>
+    getCompressionsValueList();
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @param index The index of the value to return.
+     * @return The enum numeric value on the wire of compressions at the given index.
+     */
+    int getCompressionsValue(int index);
+
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return A list containing the headerModes.
+     */
+    java.util.List<com.game.protocol.generated.CommonProto.FrameHeaderMode> getHeaderModesList();
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return The count of headerModes.
+     */
+    int getHeaderModesCount();
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @param index The index of the element to return.
+     * @return The headerModes at the given index.
+     */
+    com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderModes(int index);
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return A list containing the enum numeric values on the wire for headerModes.
+     */
+    java.util.List<java.lang.Integer>
+    getHeaderModesValueList();
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @param index The index of the value to return.
+     * @return The enum numeric value on the wire of headerModes at the given index.
+     */
+    int getHeaderModesValue(int index);
+
+    /**
+     * <pre>
+     * 客户端能否解析 BATCH 帧
+     * </pre>
+     *
+     * <code>bool batch_supported = 6;</code>
+     * @return The batchSupported.
+     */
+    boolean getBatchSupported();
+  }
+  /**
+   * <pre>
+   * 握手请求
+   * </pre>
+   *
+   * Protobuf type {@code com.game.protocol.Handshake}
+   */
+  public static final class Handshake extends
+      com.google.protobuf.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:com.game.protocol.Handshake)
+      HandshakeOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use Handshake.newBuilder() to construct.
+    private Handshake(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private Handshake() {
+      deviceId_ = "";
+      platform_ = "";
+      compressions_ = java.util.Collections.emptyList();
+      headerModes_ = java.util.Collections.emptyList();
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        UnusedPrivateParameter unused) {
+      return new Handshake();
+    }
+
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.game.protocol.generated.CommonProto.internal_static_com_game_protocol_Handshake_descriptor;
+    }
+
+    @java.lang.Override
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.game.protocol.generated.CommonProto.internal_static_com_game_protocol_Handshake_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.game.protocol.generated.CommonProto.Handshake.class, com.game.protocol.generated.CommonProto.Handshake.Builder.class);
+    }
+
+    public static final int VERSION_FIELD_NUMBER = 1;
+    private int version_ = 0;
+    /**
+     * <pre>
+     * 客户端版本
+     * </pre>
+     *
+     * <code>int32 version = 1;</code>
+     * @return The version.
+     */
+    @java.lang.Override
+    public int getVersion() {
       return version_;
     }
 
@@ -2287,6 +2670,177 @@ public final class CommonProto {
       }
     }
 
+    public static final int COMPRESSIONS_FIELD_NUMBER = 4;
+    @SuppressWarnings("serial")
+    private java.util.List<java.lang.Integer> compressions_;
+    private static final com.google.protobuf.Internal.ListAdapter.Converter<
+        java.lang.Integer, com.game.protocol.generated.CommonProto.CompressionType> compressions_converter_ =
+            new com.google.protobuf.Internal.ListAdapter.Converter<
+                java.lang.Integer, com.game.protocol.generated.CommonProto.CompressionType>() {
+              public com.game.protocol.generated.CommonProto.CompressionType convert(java.lang.Integer from) {
+                com.game.protocol.generated.CommonProto.CompressionType result = com.game.protocol.generated.CommonProto.CompressionType.forNumber(from);
+                return result == null ? com.game.protocol.generated.CommonProto.CompressionType.UNRECOGNIZED : result;
+              }
+            };
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return A list containing the compressions.
+     */
+    @java.lang.Override
+    public java.util.List<com.game.protocol.generated.CommonProto.CompressionType> getCompressionsList() {
+      return new com.google.protobuf.Internal.ListAdapter<
+          java.lang.Integer, com.game.protocol.generated.CommonProto.CompressionType>(compressions_, compressions_converter_);
+    }
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return The count of compressions.
+     */
+    @java.lang.Override
+    public int getCompressionsCount() {
+      return compressions_.size();
+    }
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @param index The index of the element to return.
+     * @return The compressions at the given index.
+     */
+    @java.lang.Override
+    public com.game.protocol.generated.CommonProto.CompressionType getCompressions(int index) {
+      return compressions_converter_.convert(compressions_.get(index));
+    }
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @return A list containing the enum numeric values on the wire for compressions.
+     */
+    @java.lang.Override
+    public java.util.List<java.lang.Integer>
+    getCompressionsValueList() {
+      return compressions_;
+    }
+    /**
+     * <pre>
+     * 客户端支持的压缩算法
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+     * @param index The index of the value to return.
+     * @return The enum numeric value on the wire of compressions at the given index.
+     */
+    @java.lang.Override
+    public int getCompressionsValue(int index) {
+      return compressions_.get(index);
+    }
+    private int compressionsMemoizedSerializedSize;
+
+    public static final int HEADER_MODES_FIELD_NUMBER = 5;
+    @SuppressWarnings("serial")
+    private java.util.List<java.lang.Integer> headerModes_;
+    private static final com.google.protobuf.Internal.ListAdapter.Converter<
+        java.lang.Integer, com.game.protocol.generated.CommonProto.FrameHeaderMode> headerModes_converter_ =
+            new com.google.protobuf.Internal.ListAdapter.Converter<
+                java.lang.Integer, com.game.protocol.generated.CommonProto.FrameHeaderMode>() {
+              public com.game.protocol.generated.CommonProto.FrameHeaderMode convert(java.lang.Integer from) {
+                com.game.protocol.generated.CommonProto.FrameHeaderMode result = com.game.protocol.generated.CommonProto.FrameHeaderMode.forNumber(from);
+                return result == null ? com.game.protocol.generated.CommonProto.FrameHeaderMode.UNRECOGNIZED : result;
+              }
+            };
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return A list containing the headerModes.
+     */
+    @java.lang.Override
+    public java.util.List<com.game.protocol.generated.CommonProto.FrameHeaderMode> getHeaderModesList() {
+      return new com.google.protobuf.Internal.ListAdapter<
+          java.lang.Integer, com.game.protocol.generated.CommonProto.FrameHeaderMode>(headerModes_, headerModes_converter_);
+    }
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return The count of headerModes.
+     */
+    @java.lang.Override
+    public int getHeaderModesCount() {
+      return headerModes_.size();
+    }
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @param index The index of the element to return.
+     * @return The headerModes at the given index.
+     */
+    @java.lang.Override
+    public com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderModes(int index) {
+      return headerModes_converter_.convert(headerModes_.get(index));
+    }
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @return A list containing the enum numeric values on the wire for headerModes.
+     */
+    @java.lang.Override
+    public java.util.List<java.lang.Integer>
+    getHeaderModesValueList() {
+      return headerModes_;
+    }
+    /**
+     * <pre>
+     * 客户端支持的帧头格式
+     * </pre>
+     *
+     * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+     * @param index The index of the value to return.
+     * @return The enum numeric value on the wire of headerModes at the given index.
+     */
+    @java.lang.Override
+    public int getHeaderModesValue(int index) {
+      return headerModes_.get(index);
+    }
+    private int headerModesMemoizedSerializedSize;
+
+    public static final int BATCH_SUPPORTED_FIELD_NUMBER = 6;
+    private boolean batchSupported_ = false;
+    /**
+     * <pre>
+     * 客户端能否解析 BATCH 帧
+     * </pre>
+     *
+     * <code>bool batch_supported = 6;</code>
+     * @return The batchSupported.
+     */
+    @java.lang.Override
+    public boolean getBatchSupported() {
+      return batchSupported_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -2301,6 +2855,7 @@ public final class CommonProto {
     @java.lang.Override
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
+      getSerializedSize();
       if (version_ != 0) {
         output.writeInt32(1, version_);
       }
@@ -2310,6 +2865,23 @@ public final class CommonProto {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(platform_)) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 3, platform_);
       }
+      if (getCompressionsList().size() > 0) {
+        output.writeUInt32NoTag(34);
+        output.writeUInt32NoTag(compressionsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < compressions_.size(); i++) {
+        output.writeEnumNoTag(compressions_.get(i));
+      }
+      if (getHeaderModesList().size() > 0) {
+        output.writeUInt32NoTag(42);
+        output.writeUInt32NoTag(headerModesMemoizedSerializedSize);
+      }
+      for (int i = 0; i < headerModes_.size(); i++) {
+        output.writeEnumNoTag(headerModes_.get(i));
+      }
+      if (batchSupported_ != false) {
+        output.writeBool(6, batchSupported_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -2329,6 +2901,34 @@ public final class CommonProto {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(platform_)) {
         size += com.google.protobuf.GeneratedMessageV3.computeStringSize(3, platform_);
       }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < compressions_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeEnumSizeNoTag(compressions_.get(i));
+        }
+        size += dataSize;
+        if (!getCompressionsList().isEmpty()) {  size += 1;
+          size += com.google.protobuf.CodedOutputStream
+            .computeUInt32SizeNoTag(dataSize);
+        }compressionsMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < headerModes_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeEnumSizeNoTag(headerModes_.get(i));
+        }
+        size += dataSize;
+        if (!getHeaderModesList().isEmpty()) {  size += 1;
+          size += com.google.protobuf.CodedOutputStream
+            .computeUInt32SizeNoTag(dataSize);
+        }headerModesMemoizedSerializedSize = dataSize;
+      }
+      if (batchSupported_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(6, batchSupported_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -2350,6 +2950,10 @@ public final class CommonProto {
           .equals(other.getDeviceId())) return false;
       if (!getPlatform()
           .equals(other.getPlatform())) return false;
+      if (!compressions_.equals(other.compressions_)) return false;
+      if (!headerModes_.equals(other.headerModes_)) return false;
+      if (getBatchSupported()
+          != other.getBatchSupported()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -2367,6 +2971,17 @@ public final class CommonProto {
       hash = (53 * hash) + getDeviceId().hashCode();
       hash = (37 * hash) + PLATFORM_FIELD_NUMBER;
       hash = (53 * hash) + getPlatform().hashCode();
+      if (getCompressionsCount() > 0) {
+        hash = (37 * hash) + COMPRESSIONS_FIELD_NUMBER;
+        hash = (53 * hash) + compressions_.hashCode();
+      }
+      if (getHeaderModesCount() > 0) {
+        hash = (37 * hash) + HEADER_MODES_FIELD_NUMBER;
+        hash = (53 * hash) + headerModes_.hashCode();
+      }
+      hash = (37 * hash) + BATCH_SUPPORTED_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getBatchSupported());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -2505,6 +3120,11 @@ public final class CommonProto {
         version_ = 0;
         deviceId_ = "";
         platform_ = "";
+        compressions_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        headerModes_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        batchSupported_ = false;
         return this;
       }
 
@@ -2531,11 +3151,25 @@ public final class CommonProto {
       @java.lang.Override
       public com.game.protocol.generated.CommonProto.Handshake buildPartial() {
         com.game.protocol.generated.CommonProto.Handshake result = new com.game.protocol.generated.CommonProto.Handshake(this);
+        buildPartialRepeatedFields(result);
         if (bitField0_ != 0) { buildPartial0(result); }
         onBuilt();
         return result;
       }
 
+      private void buildPartialRepeatedFields(com.game.protocol.generated.CommonProto.Handshake result) {
+        if (((bitField0_ & 0x00000008) != 0)) {
+          compressions_ = java.util.Collections.unmodifiableList(compressions_);
+          bitField0_ = (bitField0_ & ~0x00000008);
+        }
+        result.compressions_ = compressions_;
+        if (((bitField0_ & 0x00000010) != 0)) {
+          headerModes_ = java.util.Collections.unmodifiableList(headerModes_);
+          bitField0_ = (bitField0_ & ~0x00000010);
+        }
+        result.headerModes_ = headerModes_;
+      }
+
       private void buildPartial0(com.game.protocol.generated.CommonProto.Handshake result) {
         int from_bitField0_ = bitField0_;
         if (((from_bitField0_ & 0x00000001) != 0)) {
@@ -2547,6 +3181,9 @@ public final class CommonProto {
         if (((from_bitField0_ & 0x00000004) != 0)) {
           result.platform_ = platform_;
         }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.batchSupported_ = batchSupported_;
+        }
       }
 
       @java.lang.Override
@@ -2606,6 +3243,29 @@ public final class CommonProto {
           bitField0_ |= 0x00000004;
           onChanged();
         }
+        if (!other.compressions_.isEmpty()) {
+          if (compressions_.isEmpty()) {
+            compressions_ = other.compressions_;
+            bitField0_ = (bitField0_ & ~0x00000008);
+          } else {
+            ensureCompressionsIsMutable();
+            compressions_.addAll(other.compressions_);
+          }
+          onChanged();
+        }
+        if (!other.headerModes_.isEmpty()) {
+          if (headerModes_.isEmpty()) {
+            headerModes_ = other.headerModes_;
+            bitField0_ = (bitField0_ & ~0x00000010);
+          } else {
+            ensureHeaderModesIsMutable();
+            headerModes_.addAll(other.headerModes_);
+          }
+          onChanged();
+        }
+        if (other.getBatchSupported() != false) {
+          setBatchSupported(other.getBatchSupported());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -2647,6 +3307,45 @@ public final class CommonProto {
                 bitField0_ |= 0x00000004;
                 break;
               } // case 26
+              case 32: {
+                int tmpRaw = input.readEnum();
+                ensureCompressionsIsMutable();
+                compressions_.add(tmpRaw);
+                break;
+              } // case 32
+              case 34: {
+                int length = input.readRawVarint32();
+                int oldLimit = input.pushLimit(length);
+                while(input.getBytesUntilLimit() > 0) {
+                  int tmpRaw = input.readEnum();
+                  ensureCompressionsIsMutable();
+                  compressions_.add(tmpRaw);
+                }
+                input.popLimit(oldLimit);
+                break;
+              } // case 34
+              case 40: {
+                int tmpRaw = input.readEnum();
+                ensureHeaderModesIsMutable();
+                headerModes_.add(tmpRaw);
+                break;
+              } // case 40
+              case 42: {
+                int length = input.readRawVarint32();
+                int oldLimit = input.pushLimit(length);
+                while(input.getBytesUntilLimit() > 0) {
+                  int tmpRaw = input.readEnum();
+                  ensureHeaderModesIsMutable();
+                  headerModes_.add(tmpRaw);
+                }
+                input.popLimit(oldLimit);
+                break;
+              } // case 42
+              case 48: {
+                batchSupported_ = input.readBool();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -2882,12 +3581,432 @@ public final class CommonProto {
        * @param value The bytes for platform to set.
        * @return This builder for chaining.
        */
-      public Builder setPlatformBytes(
-          com.google.protobuf.ByteString value) {
-        if (value == null) { throw new NullPointerException(); }
-        checkByteStringIsUtf8(value);
-        platform_ = value;
-        bitField0_ |= 0x00000004;
+      public Builder setPlatformBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        platform_ = value;
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> compressions_ =
+        java.util.Collections.emptyList();
+      private void ensureCompressionsIsMutable() {
+        if (!((bitField0_ & 0x00000008) != 0)) {
+          compressions_ = new java.util.ArrayList<java.lang.Integer>(compressions_);
+          bitField0_ |= 0x00000008;
+        }
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @return A list containing the compressions.
+       */
+      public java.util.List<com.game.protocol.generated.CommonProto.CompressionType> getCompressionsList() {
+        return new com.google.protobuf.Internal.ListAdapter<
+            java.lang.Integer, com.game.protocol.generated.CommonProto.CompressionType>(compressions_, compressions_converter_);
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @return The count of compressions.
+       */
+      public int getCompressionsCount() {
+        return compressions_.size();
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param index The index of the element to return.
+       * @return The compressions at the given index.
+       */
+      public com.game.protocol.generated.CommonProto.CompressionType getCompressions(int index) {
+        return compressions_converter_.convert(compressions_.get(index));
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param index The index to set the value at.
+       * @param value The compressions to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompressions(
+          int index, com.game.protocol.generated.CommonProto.CompressionType value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureCompressionsIsMutable();
+        compressions_.set(index, value.getNumber());
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param value The compressions to add.
+       * @return This builder for chaining.
+       */
+      public Builder addCompressions(com.game.protocol.generated.CommonProto.CompressionType value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureCompressionsIsMutable();
+        compressions_.add(value.getNumber());
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param values The compressions to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllCompressions(
+          java.lang.Iterable<? extends com.game.protocol.generated.CommonProto.CompressionType> values) {
+        ensureCompressionsIsMutable();
+        for (com.game.protocol.generated.CommonProto.CompressionType value : values) {
+          compressions_.add(value.getNumber());
+        }
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompressions() {
+        compressions_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @return A list containing the enum numeric values on the wire for compressions.
+       */
+      public java.util.List<java.lang.Integer>
+      getCompressionsValueList() {
+        return java.util.Collections.unmodifiableList(compressions_);
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param index The index of the value to return.
+       * @return The enum numeric value on the wire of compressions at the given index.
+       */
+      public int getCompressionsValue(int index) {
+        return compressions_.get(index);
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param index The index to set the value at.
+       * @param value The enum numeric value on the wire for compressions to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompressionsValue(
+          int index, int value) {
+        ensureCompressionsIsMutable();
+        compressions_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param value The enum numeric value on the wire for compressions to add.
+       * @return This builder for chaining.
+       */
+      public Builder addCompressionsValue(int value) {
+        ensureCompressionsIsMutable();
+        compressions_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的压缩算法
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.CompressionType compressions = 4;</code>
+       * @param values The enum numeric values on the wire for compressions to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllCompressionsValue(
+          java.lang.Iterable<java.lang.Integer> values) {
+        ensureCompressionsIsMutable();
+        for (int value : values) {
+          compressions_.add(value);
+        }
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> headerModes_ =
+        java.util.Collections.emptyList();
+      private void ensureHeaderModesIsMutable() {
+        if (!((bitField0_ & 0x00000010) != 0)) {
+          headerModes_ = new java.util.ArrayList<java.lang.Integer>(headerModes_);
+          bitField0_ |= 0x00000010;
+        }
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @return A list containing the headerModes.
+       */
+      public java.util.List<com.game.protocol.generated.CommonProto.FrameHeaderMode> getHeaderModesList() {
+        return new com.google.protobuf.Internal.ListAdapter<
+            java.lang.Integer, com.game.protocol.generated.CommonProto.FrameHeaderMode>(headerModes_, headerModes_converter_);
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @return The count of headerModes.
+       */
+      public int getHeaderModesCount() {
+        return headerModes_.size();
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param index The index of the element to return.
+       * @return The headerModes at the given index.
+       */
+      public com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderModes(int index) {
+        return headerModes_converter_.convert(headerModes_.get(index));
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param index The index to set the value at.
+       * @param value The headerModes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setHeaderModes(
+          int index, com.game.protocol.generated.CommonProto.FrameHeaderMode value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureHeaderModesIsMutable();
+        headerModes_.set(index, value.getNumber());
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param value The headerModes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addHeaderModes(com.game.protocol.generated.CommonProto.FrameHeaderMode value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureHeaderModesIsMutable();
+        headerModes_.add(value.getNumber());
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param values The headerModes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllHeaderModes(
+          java.lang.Iterable<? extends com.game.protocol.generated.CommonProto.FrameHeaderMode> values) {
+        ensureHeaderModesIsMutable();
+        for (com.game.protocol.generated.CommonProto.FrameHeaderMode value : values) {
+          headerModes_.add(value.getNumber());
+        }
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearHeaderModes() {
+        headerModes_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @return A list containing the enum numeric values on the wire for headerModes.
+       */
+      public java.util.List<java.lang.Integer>
+      getHeaderModesValueList() {
+        return java.util.Collections.unmodifiableList(headerModes_);
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param index The index of the value to return.
+       * @return The enum numeric value on the wire of headerModes at the given index.
+       */
+      public int getHeaderModesValue(int index) {
+        return headerModes_.get(index);
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param index The index to set the value at.
+       * @param value The enum numeric value on the wire for headerModes to set.
+       * @return This builder for chaining.
+       */
+      public Builder setHeaderModesValue(
+          int index, int value) {
+        ensureHeaderModesIsMutable();
+        headerModes_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param value The enum numeric value on the wire for headerModes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addHeaderModesValue(int value) {
+        ensureHeaderModesIsMutable();
+        headerModes_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端支持的帧头格式
+       * </pre>
+       *
+       * <code>repeated .com.game.protocol.FrameHeaderMode header_modes = 5;</code>
+       * @param values The enum numeric values on the wire for headerModes to add.
+       * @return This builder for chaining.
+       */
+      public Builder addAllHeaderModesValue(
+          java.lang.Iterable<java.lang.Integer> values) {
+        ensureHeaderModesIsMutable();
+        for (int value : values) {
+          headerModes_.add(value);
+        }
+        onChanged();
+        return this;
+      }
+
+      private boolean batchSupported_ ;
+      /**
+       * <pre>
+       * 客户端能否解析 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_supported = 6;</code>
+       * @return The batchSupported.
+       */
+      @java.lang.Override
+      public boolean getBatchSupported() {
+        return batchSupported_;
+      }
+      /**
+       * <pre>
+       * 客户端能否解析 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_supported = 6;</code>
+       * @param value The batchSupported to set.
+       * @return This builder for chaining.
+       */
+      public Builder setBatchSupported(boolean value) {
+
+        batchSupported_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 客户端能否解析 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_supported = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearBatchSupported() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        batchSupported_ = false;
         onChanged();
         return this;
       }
@@ -2998,6 +4117,64 @@ public final class CommonProto {
      * @return The heartbeatInterval.
      */
     int getHeartbeatInterval();
+
+    /**
+     * <pre>
+     * 协商后的压缩算法
+     * </pre>
+     *
+     * <code>.com.game.protocol.CompressionType compression = 4;</code>
+     * @return The enum numeric value on the wire for compression.
+     */
+    int getCompressionValue();
+    /**
+     * <pre>
+     * 协商后的压缩算法
+     * </pre>
+     *
+     * <code>.com.game.protocol.CompressionType compression = 4;</code>
+     * @return The compression.
+     */
+    com.game.protocol.generated.CommonProto.CompressionType getCompression();
+
+    /**
+     * <pre>
+     * 数据体超过该字节数时才压缩
+     * </pre>
+     *
+     * <code>int32 compress_threshold = 5;</code>
+     * @return The compressThreshold.
+     */
+    int getCompressThreshold();
+
+    /**
+     * <pre>
+     * 协商后的帧头格式
+     * </pre>
+     *
+     * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+     * @return The enum numeric value on the wire for headerMode.
+     */
+    int getHeaderModeValue();
+    /**
+     * <pre>
+     * 协商后的帧头格式
+     * </pre>
+     *
+     * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+     * @return The headerMode.
+     */
+    com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderMode();
+
+    /**
+     * <pre>
+     * 服务端是否会下发 BATCH 帧
+     * </pre>
+     *
+     * <code>bool batch_enabled = 7;</code>
+     * @return The batchEnabled.
+     */
+    boolean getBatchEnabled();
   }
   /**
    * <pre>
@@ -3017,6 +4194,8 @@ public final class CommonProto {
     }
     private HandshakeResponse() {
       sessionKey_ = "";
+      compression_ = 0;
+      headerMode_ = 0;
     }
 
     @java.lang.Override
@@ -3116,6 +4295,88 @@ public final class CommonProto {
       return heartbeatInterval_;
     }
 
+    public static final int COMPRESSION_FIELD_NUMBER = 4;
+    private int compression_ = 0;
+    /**
+     * <pre>
+     * 协商后的压缩算法
+     * </pre>
+     *
+     * <code>.com.game.protocol.CompressionType compression = 4;</code>
+     * @return The enum numeric value on the wire for compression.
+     */
+    @java.lang.Override public int getCompressionValue() {
+      return compression_;
+    }
+    /**
+     * <pre>
+     * 协商后的压缩算法
+     * </pre>
+     *
+     * <code>.com.game.protocol.CompressionType compression = 4;</code>
+     * @return The compression.
+     */
+    @java.lang.Override public com.game.protocol.generated.CommonProto.CompressionType getCompression() {
+      com.game.protocol.generated.CommonProto.CompressionType result = com.game.protocol.generated.CommonProto.CompressionType.forNumber(compression_);
+      return result == null ? com.game.protocol.generated.CommonProto.CompressionType.UNRECOGNIZED : result;
+    }
+
+    public static final int COMPRESS_THRESHOLD_FIELD_NUMBER = 5;
+    private int compressThreshold_ = 0;
+    /**
+     * <pre>
+     * 数据体超过该字节数时才压缩
+     * </pre>
+     *
+     * <code>int32 compress_threshold = 5;</code>
+     * @return The compressThreshold.
+     */
+    @java.lang.Override
+    public int getCompressThreshold() {
+      return compressThreshold_;
+    }
+
+    public static final int HEADER_MODE_FIELD_NUMBER = 6;
+    private int headerMode_ = 0;
+    /**
+     * <pre>
+     * 协商后的帧头格式
+     * </pre>
+     *
+     * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+     * @return The enum numeric value on the wire for headerMode.
+     */
+    @java.lang.Override public int getHeaderModeValue() {
+      return headerMode_;
+    }
+    /**
+     * <pre>
+     * 协商后的帧头格式
+     * </pre>
+     *
+     * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+     * @return The headerMode.
+     */
+    @java.lang.Override public com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderMode() {
+      com.game.protocol.generated.CommonProto.FrameHeaderMode result = com.game.protocol.generated.CommonProto.FrameHeaderMode.forNumber(headerMode_);
+      return result == null ? com.game.protocol.generated.CommonProto.FrameHeaderMode.UNRECOGNIZED : result;
+    }
+
+    public static final int BATCH_ENABLED_FIELD_NUMBER = 7;
+    private boolean batchEnabled_ = false;
+    /**
+     * <pre>
+     * 服务端是否会下发 BATCH 帧
+     * </pre>
+     *
+     * <code>bool batch_enabled = 7;</code>
+     * @return The batchEnabled.
+     */
+    @java.lang.Override
+    public boolean getBatchEnabled() {
+      return batchEnabled_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -3139,6 +4400,18 @@ public final class CommonProto {
       if (heartbeatInterval_ != 0) {
         output.writeInt32(3, heartbeatInterval_);
       }
+      if (compression_ != com.game.protocol.generated.CommonProto.CompressionType.COMPRESSION_NONE.getNumber()) {
+        output.writeEnum(4, compression_);
+      }
+      if (compressThreshold_ != 0) {
+        output.writeInt32(5, compressThreshold_);
+      }
+      if (headerMode_ != com.game.protocol.generated.CommonProto.FrameHeaderMode.HEADER_FIXED.getNumber()) {
+        output.writeEnum(6, headerMode_);
+      }
+      if (batchEnabled_ != false) {
+        output.writeBool(7, batchEnabled_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3159,6 +4432,22 @@ public final class CommonProto {
         size += com.google.protobuf.CodedOutputStream
           .computeInt32Size(3, heartbeatInterval_);
       }
+      if (compression_ != com.game.protocol.generated.CommonProto.CompressionType.COMPRESSION_NONE.getNumber()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeEnumSize(4, compression_);
+      }
+      if (compressThreshold_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(5, compressThreshold_);
+      }
+      if (headerMode_ != com.game.protocol.generated.CommonProto.FrameHeaderMode.HEADER_FIXED.getNumber()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeEnumSize(6, headerMode_);
+      }
+      if (batchEnabled_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, batchEnabled_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -3180,6 +4469,12 @@ public final class CommonProto {
           .equals(other.getSessionKey())) return false;
       if (getHeartbeatInterval()
           != other.getHeartbeatInterval()) return false;
+      if (compression_ != other.compression_) return false;
+      if (getCompressThreshold()
+          != other.getCompressThreshold()) return false;
+      if (headerMode_ != other.headerMode_) return false;
+      if (getBatchEnabled()
+          != other.getBatchEnabled()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -3198,6 +4493,15 @@ public final class CommonProto {
       hash = (53 * hash) + getSessionKey().hashCode();
       hash = (37 * hash) + HEARTBEAT_INTERVAL_FIELD_NUMBER;
       hash = (53 * hash) + getHeartbeatInterval();
+      hash = (37 * hash) + COMPRESSION_FIELD_NUMBER;
+      hash = (53 * hash) + compression_;
+      hash = (37 * hash) + COMPRESS_THRESHOLD_FIELD_NUMBER;
+      hash = (53 * hash) + getCompressThreshold();
+      hash = (37 * hash) + HEADER_MODE_FIELD_NUMBER;
+      hash = (53 * hash) + headerMode_;
+      hash = (37 * hash) + BATCH_ENABLED_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getBatchEnabled());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -3336,6 +4640,10 @@ public final class CommonProto {
         serverTime_ = 0L;
         sessionKey_ = "";
         heartbeatInterval_ = 0;
+        compression_ = 0;
+        compressThreshold_ = 0;
+        headerMode_ = 0;
+        batchEnabled_ = false;
         return this;
       }
 
@@ -3378,6 +4686,18 @@ public final class CommonProto {
         if (((from_bitField0_ & 0x00000004) != 0)) {
           result.heartbeatInterval_ = heartbeatInterval_;
         }
+        if (((from_bitField0_ & 0x00000008) != 0)) {
+          result.compression_ = compression_;
+        }
+        if (((from_bitField0_ & 0x00000010) != 0)) {
+          result.compressThreshold_ = compressThreshold_;
+        }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.headerMode_ = headerMode_;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.batchEnabled_ = batchEnabled_;
+        }
       }
 
       @java.lang.Override
@@ -3435,6 +4755,18 @@ public final class CommonProto {
         if (other.getHeartbeatInterval() != 0) {
           setHeartbeatInterval(other.getHeartbeatInterval());
         }
+        if (other.compression_ != 0) {
+          setCompressionValue(other.getCompressionValue());
+        }
+        if (other.getCompressThreshold() != 0) {
+          setCompressThreshold(other.getCompressThreshold());
+        }
+        if (other.headerMode_ != 0) {
+          setHeaderModeValue(other.getHeaderModeValue());
+        }
+        if (other.getBatchEnabled() != false) {
+          setBatchEnabled(other.getBatchEnabled());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -3476,6 +4808,26 @@ public final class CommonProto {
                 bitField0_ |= 0x00000004;
                 break;
               } // case 24
+              case 32: {
+                compression_ = input.readEnum();
+                bitField0_ |= 0x00000008;
+                break;
+              } // case 32
+              case 40: {
+                compressThreshold_ = input.readInt32();
+                bitField0_ |= 0x00000010;
+                break;
+              } // case 40
+              case 48: {
+                headerMode_ = input.readEnum();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
+              case 56: {
+                batchEnabled_ = input.readBool();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 56
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -3672,6 +5024,240 @@ public final class CommonProto {
         onChanged();
         return this;
       }
+
+      private int compression_ = 0;
+      /**
+       * <pre>
+       * 协商后的压缩算法
+       * </pre>
+       *
+       * <code>.com.game.protocol.CompressionType compression = 4;</code>
+       * @return The enum numeric value on the wire for compression.
+       */
+      @java.lang.Override public int getCompressionValue() {
+        return compression_;
+      }
+      /**
+       * <pre>
+       * 协商后的压缩算法
+       * </pre>
+       *
+       * <code>.com.game.protocol.CompressionType compression = 4;</code>
+       * @param value The enum numeric value on the wire for compression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompressionValue(int value) {
+        compression_ = value;
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 协商后的压缩算法
+       * </pre>
+       *
+       * <code>.com.game.protocol.CompressionType compression = 4;</code>
+       * @return The compression.
+       */
+      @java.lang.Override
+      public com.game.protocol.generated.CommonProto.CompressionType getCompression() {
+        com.game.protocol.generated.CommonProto.CompressionType result = com.game.protocol.generated.CommonProto.CompressionType.forNumber(compression_);
+        return result == null ? com.game.protocol.generated.CommonProto.CompressionType.UNRECOGNIZED : result;
+      }
+      /**
+       * <pre>
+       * 协商后的压缩算法
+       * </pre>
+       *
+       * <code>.com.game.protocol.CompressionType compression = 4;</code>
+       * @param value The compression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompression(com.game.protocol.generated.CommonProto.CompressionType value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        bitField0_ |= 0x00000008;
+        compression_ = value.getNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 协商后的压缩算法
+       * </pre>
+       *
+       * <code>.com.game.protocol.CompressionType compression = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompression() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        compression_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int compressThreshold_ ;
+      /**
+       * <pre>
+       * 数据体超过该字节数时才压缩
+       * </pre>
+       *
+       * <code>int32 compress_threshold = 5;</code>
+       * @return The compressThreshold.
+       */
+      @java.lang.Override
+      public int getCompressThreshold() {
+        return compressThreshold_;
+      }
+      /**
+       * <pre>
+       * 数据体超过该字节数时才压缩
+       * </pre>
+       *
+       * <code>int32 compress_threshold = 5;</code>
+       * @param value The compressThreshold to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompressThreshold(int value) {
+
+        compressThreshold_ = value;
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 数据体超过该字节数时才压缩
+       * </pre>
+       *
+       * <code>int32 compress_threshold = 5;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompressThreshold() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        compressThreshold_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int headerMode_ = 0;
+      /**
+       * <pre>
+       * 协商后的帧头格式
+       * </pre>
+       *
+       * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+       * @return The enum numeric value on the wire for headerMode.
+       */
+      @java.lang.Override public int getHeaderModeValue() {
+        return headerMode_;
+      }
+      /**
+       * <pre>
+       * 协商后的帧头格式
+       * </pre>
+       *
+       * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+       * @param value The enum numeric value on the wire for headerMode to set.
+       * @return This builder for chaining.
+       */
+      public Builder setHeaderModeValue(int value) {
+        headerMode_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 协商后的帧头格式
+       * </pre>
+       *
+       * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+       * @return The headerMode.
+       */
+      @java.lang.Override
+      public com.game.protocol.generated.CommonProto.FrameHeaderMode getHeaderMode() {
+        com.game.protocol.generated.CommonProto.FrameHeaderMode result = com.game.protocol.generated.CommonProto.FrameHeaderMode.forNumber(headerMode_);
+        return result == null ? com.game.protocol.generated.CommonProto.FrameHeaderMode.UNRECOGNIZED : result;
+      }
+      /**
+       * <pre>
+       * 协商后的帧头格式
+       * </pre>
+       *
+       * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+       * @param value The headerMode to set.
+       * @return This builder for chaining.
+       */
+      public Builder setHeaderMode(com.game.protocol.generated.CommonProto.FrameHeaderMode value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        bitField0_ |= 0x00000020;
+        headerMode_ = value.getNumber();
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 协商后的帧头格式
+       * </pre>
+       *
+       * <code>.com.game.protocol.FrameHeaderMode header_mode = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearHeaderMode() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        headerMode_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean batchEnabled_ ;
+      /**
+       * <pre>
+       * 服务端是否会下发 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_enabled = 7;</code>
+       * @return The batchEnabled.
+       */
+      @java.lang.Override
+      public boolean getBatchEnabled() {
+        return batchEnabled_;
+      }
+      /**
+       * <pre>
+       * 服务端是否会下发 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_enabled = 7;</code>
+       * @param value The batchEnabled to set.
+       * @return This builder for chaining.
+       */
+      public Builder setBatchEnabled(boolean value) {
+
+        batchEnabled_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 服务端是否会下发 BATCH 帧
+       * </pre>
+       *
+       * <code>bool batch_enabled = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearBatchEnabled() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        batchEnabled_ = false;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -4511,28 +6097,39 @@ public final class CommonProto {
       "sageHeader\022\022\n\nsession_id\030\001 \001(\003\022\021\n\ttimest" +
       "amp\030\002 \001(\003\022\020\n\010sequence\030\003 \001(\005\022,\n\004type\030\004 \001(" +
       "\0162\036.com.game.protocol.MessageType\" \n\tHea" +
-      "rtbeat\022\023\n\013client_time\030\001 \001(\003\"A\n\tHandshake" +
-      "\022\017\n\007version\030\001 \001(\005\022\021\n\tdevice_id\030\002 \001(\t\022\020\n\010" +
-      "platform\030\003 \001(\t\"Y\n\021HandshakeResponse\022\023\n\013s" +
-      "erver_time\030\001 \001(\003\022\023\n\013session_key\030\002 \001(\t\022\032\n" +
-      "\022heartbeat_interval\030\003 \001(\005\"D\n\005Error\022*\n\004co" +
-      "de\030\001 \001(\0162\034.com.game.protocol.ErrorCode\022\017" +
-      "\n\007message\030\002 \001(\t*\375\002\n\013MessageType\022\013\n\007UNKNO" +
-      "WN\020\000\022\r\n\tHEARTBEAT\020\001\022\r\n\tHANDSHAKE\020\002\022\022\n\016HA" +
-      "NDSHAKE_RESP\020\003\022\t\n\005LOGIN\020d\022\016\n\nLOGIN_RESP\020" +
-      "e\022\n\n\006LOGOUT\020f\022\017\n\013LOGOUT_RESP\020g\022\020\n\013CREATE" +
-      "_ROLE\020\310\001\022\025\n\020CREATE_ROLE_RESP\020\311\001\022\020\n\013SELEC" +
-      "T_ROLE\020\312\001\022\025\n\020SELECT_ROLE_RESP\020\313\001\022\020\n\013DELE" +
-      "TE_ROLE\020\314\001\022\025\n\020DELETE_ROLE_RESP\020\315\001\022\t\n\004MOV" +
-      "E\020\254\002\022\016\n\tMOVE_RESP\020\255\002\022\013\n\006ATTACK\020\256\002\022\020\n\013ATT" +
-      "ACK_RESP\020\257\002\022\n\n\005SKILL\020\260\002\022\017\n\nSKILL_RESP\020\261\002" +
-      "\022\t\n\004CHAT\020\220\003\022\016\n\tCHAT_RESP\020\221\003\022\n\n\005ERROR\020\347\007*" +
-      "\261\001\n\tErrorCode\022\013\n\007SUCCESS\020\000\022\022\n\rUNKNOWN_ER" +
-      "ROR\020\350\007\022\020\n\013AUTH_FAILED\020\351\007\022\022\n\rTOKEN_EXPIRE" +
-      "D\020\352\007\022\023\n\016ROLE_NOT_FOUND\020\353\007\022\020\n\013ROLE_EXISTS" +
-      "\020\354\007\022\022\n\rINVALID_PARAM\020\355\007\022\021\n\014SERVER_ERROR\020" +
-      "\356\007\022\017\n\nRATE_LIMIT\020\357\007B*\n\033com.game.protocol" +
-      ".generatedB\013CommonProtob\006proto3"
+      "rtbeat\022\023\n\013client_time\030\001 \001(\003\"\316\001\n\tHandshak" +
+      "e\022\017\n\007version\030\001 \001(\005\022\021\n\tdevice_id\030\002 \001(\t\022\020\n" +
+      "\010platform\030\003 \001(\t\0228\n\014compressions\030\004 \003(\0162\"." +
+      "com.game.protocol.CompressionType\0228\n\014hea" +
+      "der_modes\030\005 \003(\0162\".com.game.protocol.Fram" +
+      "eHeaderMode\022\027\n\017batch_supported\030\006 \001(\010\"\376\001\n" +
+      "\021HandshakeResponse\022\023\n\013server_time\030\001 \001(\003\022" +
+      "\023\n\013session_key\030\002 \001(\t\022\032\n\022heartbeat_interv" +
+      "al\030\003 \001(\005\0227\n\013compression\030\004 \001(\0162\".com.game" +
+      ".protocol.CompressionType\022\032\n\022compress_th" +
+      "reshold\030\005 \001(\005\0227\n\013header_mode\030\006 \001(\0162\".com" +
+      ".game.protocol.FrameHeaderMode\022\025\n\rbatch_" +
+      "enabled\030\007 \001(\010\"D\n\005Error\022*\n\004code\030\001 \001(\0162\034.c" +
+      "om.game.protocol.ErrorCode\022\017\n\007message\030\002 " +
+      "\001(\t*\210\003\n\013MessageType\022\013\n\007UNKNOWN\020\000\022\r\n\tHEAR" +
+      "TBEAT\020\001\022\r\n\tHANDSHAKE\020\002\022\022\n\016HANDSHAKE_RESP" +
+      "\020\003\022\t\n\005BATCH\020\005\022\t\n\005LOGIN\020d\022\016\n\nLOGIN_RESP\020e" +
+      "\022\n\n\006LOGOUT\020f\022\017\n\013LOGOUT_RESP\020g\022\020\n\013CREATE_" +
+      "ROLE\020\310\001\022\025\n\020CREATE_ROLE_RESP\020\311\001\022\020\n\013SELECT" +
+      "_ROLE\020\312\001\022\025\n\020SELECT_ROLE_RESP\020\313\001\022\020\n\013DELET" +
+      "E_ROLE\020\314\001\022\025\n\020DELETE_ROLE_RESP\020\315\001\022\t\n\004MOVE" +
+      "\020\254\002\022\016\n\tMOVE_RESP\020\255\002\022\013\n\006ATTACK\020\256\002\022\020\n\013ATTA" +
+      "CK_RESP\020\257\002\022\n\n\005SKILL\020\260\002\022\017\n\nSKILL_RESP\020\261\002\022" +
+      "\t\n\004CHAT\020\220\003\022\016\n\tCHAT_RESP\020\221\003\022\n\n\005ERROR\020\347\007*\261" +
+      "\001\n\tErrorCode\022\013\n\007SUCCESS\020\000\022\022\n\rUNKNOWN_ERR" +
+      "OR\020\350\007\022\020\n\013AUTH_FAILED\020\351\007\022\022\n\rTOKEN_EXPIRED" +
+      "\020\352\007\022\023\n\016ROLE_NOT_FOUND\020\353\007\022\020\n\013ROLE_EXISTS\020" +
+      "\354\007\022\022\n\rINVALID_PARAM\020\355\007\022\021\n\014SERVER_ERROR\020\356" +
+      "\007\022\017\n\nRATE_LIMIT\020\357\007*@\n\017CompressionType\022\024\n" +
+      "\020COMPRESSION_NONE\020\000\022\027\n\023COMPRESSION_DEFLA" +
+      "TE\020\001*6\n\017FrameHeaderMode\022\020\n\014HEADER_FIXED\020" +
+      "\000\022\021\n\rHEADER_VARINT\020\001B*\n\033com.game.protoco" +
+      "l.generatedB\013CommonProtob\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -4555,13 +6152,13 @@ public final class CommonProto {
     internal_static_com_game_protocol_Handshake_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_com_game_protocol_Handshake_descriptor,
-        new java.lang.String[] { "Version", "DeviceId", "Platform", });
+        new java.lang.String[] { "Version", "DeviceId", "Platform", "Compressions", "HeaderModes", "BatchSupported", });
     internal_static_com_game_protocol_HandshakeResponse_descriptor =
       getDescriptor().getMessageTypes().get(3);
     internal_static_com_game_protocol_HandshakeResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_com_game_protocol_HandshakeResponse_descriptor,
-        new java.lang.String[] { "ServerTime", "SessionKey", "HeartbeatInterval", });
+        new java.lang.String[] { "ServerTime", "SessionKey", "HeartbeatInterval", "Compression", "CompressThreshold", "HeaderMode", "BatchEnabled", });
     internal_static_com_game_protocol_Error_descriptor =
       getDescriptor().getMessageTypes().get(4);
     internal_static_com_game_protocol_Error_fieldAccessorTable = new
@@ -0,0 +1,318 @@
+package com.game.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 以 long 为键的并发哈希表
+ * 开放寻址 + 线性探测，键不装箱；按哈希高位分段，写操作只锁所在分段，读操作无锁
+ * <p>
+ * 写入时先写值再写键（均为 volatile 写），读到键即可读到对应的值。删除只清空值、保留键作为墓碑，
+ * 墓碑在同一键再次写入时复用，在分段扩容/重建时清理
+ *
+ * @param <V> 值类型
+ * @author Harleysama
+ */
+public final class ConcurrentLongMap<V> {
+
+    /**
+     * 空槽位标记，键 0 单独存放
+     */
+    private static final long EMPTY = 0L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+    private final int segmentShift;
+
+    /**
+     * 键 0 对应的值
+     */
+    private final AtomicReference<V> zeroValue = new AtomicReference<>();
+
+    public ConcurrentLongMap() {
+        this(256, 16);
+    }
+
+    /**
+     * @param expectedSize 预计元素数
+     * @param stripes      分段数，向上取整为 2 的幂
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap(int expectedSize, int stripes) {
+        int segmentCount = tableSizeFor(Math.max(1, stripes));
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        int perSegment = Math.max(1, expectedSize / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(capacityFor(perSegment));
+        }
+    }
+
+    /**
+     * 获取键对应的值，不存在时返回 null（无锁）
+     */
+    public V get(long key) {
+        if (key == EMPTY) {
+            return zeroValue.get();
+        }
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * 写入键值
+     *
+     * @return 旧值，不存在时返回 null
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        if (key == EMPTY) {
+            return zeroValue.getAndSet(value);
+        }
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * 仅当键不存在时写入
+     *
+     * @return 已存在的值，写入成功时返回 null
+     */
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        if (key == EMPTY) {
+            while (!zeroValue.compareAndSet(null, value)) {
+                V current = zeroValue.get();
+                if (current != null) {
+                    return current;
+                }
+            }
+            return null;
+        }
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * 移除键
+     *
+     * @return 被移除的值，不存在时返回 null
+     */
+    public V remove(long key) {
+        if (key == EMPTY) {
+            return zeroValue.getAndSet(null);
+        }
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, null);
+    }
+
+    /**
+     * 仅当键当前映射到指定值（按引用比较）时移除
+     *
+     * @return 是否移除
+     */
+    public boolean remove(long key, V expected) {
+        if (expected == null) {
+            return false;
+        }
+        if (key == EMPTY) {
+            return zeroValue.compareAndSet(expected, null);
+        }
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, expected) != null;
+    }
+
+    /**
+     * 元素数（各分段计数之和，并发写入时为近似值）
+     */
+    public int size() {
+        int size = zeroValue.get() != null ? 1 : 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * 各分段槽位数之和（含墓碑和空槽位，诊断用）
+     */
+    int capacity() {
+        int capacity = 0;
+        for (Segment<V> segment : segments) {
+            capacity += segment.table.mask + 1;
+        }
+        return capacity;
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+    }
+
+    /**
+     * 混合键的高低位，高位用于选择分段，低位用于槽位
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 装载因子不超过 0.5 的容量
+     */
+    private static int capacityFor(int size) {
+        return Math.max(MIN_CAPACITY, tableSizeFor(size * 2));
+    }
+
+    private static int tableSizeFor(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * 分段的槽位数组，扩容时整体替换
+     */
+    private static final class Table<V> {
+
+        private final AtomicLongArray keys;
+
+        private final AtomicReferenceArray<V> values;
+
+        private final int mask;
+
+        /**
+         * 已占用槽位（含墓碑）达到该值时重建
+         */
+        private final int threshold;
+
+        private Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+            this.threshold = capacity >>> 1;
+        }
+    }
+
+    private static final class Segment<V> {
+
+        private volatile Table<V> table;
+
+        /**
+         * 已占用槽位数（含墓碑，仅在锁内访问）
+         */
+        private int used;
+
+        /**
+         * 有效元素数
+         */
+        private volatile int size;
+
+        private Segment(int capacity) {
+            this.table = new Table<>(capacity);
+        }
+
+        private V get(long key, int hash) {
+            Table<V> t = table;
+            int mask = t.mask;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long k = t.keys.get(index);
+                if (k == key) {
+                    return t.values.get(index);
+                }
+                if (k == EMPTY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private synchronized V put(long key, int hash, V value, boolean onlyIfAbsent) {
+            Table<V> t = table;
+            int mask = t.mask;
+            int index = hash & mask;
+            while (true) {
+                long k = t.keys.get(index);
+                if (k == key) {
+                    V old = t.values.get(index);
+                    if (old != null && onlyIfAbsent) {
+                        return old;
+                    }
+                    t.values.set(index, value);
+                    if (old == null) {
+                        size++;
+                    }
+                    return old;
+                }
+                if (k == EMPTY) {
+                    if (used + 1 > t.threshold) {
+                        rehash();
+                        return put(key, hash, value, onlyIfAbsent);
+                    }
+                    // 先写值再写键，读线程看到键时值已可见
+                    t.values.set(index, value);
+                    t.keys.set(index, key);
+                    used++;
+                    size++;
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private synchronized V remove(long key, int hash, V expected) {
+            Table<V> t = table;
+            int mask = t.mask;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long k = t.keys.get(index);
+                if (k == key) {
+                    V old = t.values.get(index);
+                    if (old == null || (expected != null && old != expected)) {
+                        return null;
+                    }
+                    t.values.set(index, null);
+                    size--;
+                    return old;
+                }
+                if (k == EMPTY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * 按有效元素数重建槽位数组，丢弃墓碑；旧数组不再修改，正在读取它的线程不受影响
+         */
+        private void rehash() {
+            Table<V> old = table;
+            Table<V> fresh = new Table<>(capacityFor(Math.max(size + 1, MIN_CAPACITY) * 2));
+            int freshMask = fresh.mask;
+            int count = 0;
+            for (int i = 0; i <= old.mask; i++) {
+                long k = old.keys.get(i);
+                V v = old.values.get(i);
+                if (k == EMPTY || v == null) {
+                    continue;
+                }
+                int index = hash(k) & freshMask;
+                while (fresh.keys.get(index) != EMPTY) {
+                    index = (index + 1) & freshMask;
+                }
+                fresh.values.set(index, v);
+                fresh.keys.set(index, k);
+                count++;
+            }
+            used = count;
+            table = fresh;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.game.db;
+
+import com.game.model.Role;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.UpdateOneModel;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * RoleDao.updateModel 单元测试（只构建更新操作，不连接数据库）
+ *
+ * @author Harleysama
+ */
+class RoleDaoTest {
+
+    private final RoleDao roleDao = new RoleDao();
+
+    @Test
+    void noChangesReturnsNull() {
+        assertNull(roleDao.updateModel(loadedRole()));
+    }
+
+    @Test
+    void changedFieldsWrittenAsSet() {
+        Role role = loadedRole();
+        role.setLevel(21);
+        role.setName("renamed");
+
+        UpdateOneModel<Role> model = roleDao.updateModel(role);
+
+        assertNotNull(model);
+        assertEquals(new BsonDocument("_id", new BsonInt64(7L)),
+                model.getFilter().toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry()));
+        Document update = (Document) model.getUpdate();
+        assertEquals(Set.of("$set"), update.keySet());
+        assertEquals(new Document("level", 21).append("name", "renamed"), update.get("$set"));
+        assertFalse(role.hasChanges(), "updateModel must clear the change record");
+    }
+
+    @Test
+    void deltasWrittenAsInc() {
+        Role role = loadedRole();
+        role.addGold(10);
+        role.addGold(-3);
+        role.addExp(5);
+        role.addDiamond(2);
+
+        Document update = (Document) roleDao.updateModel(role).getUpdate();
+
+        assertEquals(Set.of("$inc"), update.keySet());
+        assertEquals(new Document("exp", 5L).append("gold", 7L).append("diamond", 2L), update.get("$inc"));
+        assertFalse(role.hasChanges());
+    }
+
+    @Test
+    void directSetOverridesDelta() {
+        Role role = loadedRole();
+        role.addGold(50);
+        role.setGold(100L);
+        role.addGold(1);
+        role.addExp(5);
+
+        Document update = (Document) roleDao.updateModel(role).getUpdate();
+
+        assertEquals(new Document("gold", 101L), update.get("$set"));
+        assertEquals(new Document("exp", 5L), update.get("$inc"));
+    }
+
+    @Test
+    void cancellingDeltasReturnsNull() {
+        Role role = loadedRole();
+        role.addDiamond(5);
+        role.addDiamond(-5);
+
+        assertNull(roleDao.updateModel(role));
+        assertFalse(role.hasChanges());
+    }
+
+    @Test
+    void markAllChangedWritesFullStateWithoutInc() {
+        Role role = loadedRole();
+        role.addGold(10);
+        role.markAllChanged();
+
+        Document update = (Document) roleDao.updateModel(role).getUpdate();
+
+        assertEquals(Set.of("$set"), update.keySet());
+        Document set = (Document) update.get("$set");
+        assertEquals(20, set.size());
+        assertEquals(5_010L, set.get("gold"));
+        assertEquals(3L, set.get("user_id"));
+        assertFalse(role.hasChanges());
+        assertNull(roleDao.updateModel(role));
+    }
+
+    private static Role loadedRole() {
+        Role role = new Role();
+        role.setId(7L);
+        role.setUserId(3L);
+        role.setName("勇者");
+        role.setGold(5_000L);
+        role.clearChanges();
+        return role;
+    }
+}
@@ -0,0 +1,150 @@
+package com.game.db.codec;
+
+import com.game.model.Role;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonType;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * RoleCodec 单元测试
+ *
+ * @author Harleysama
+ */
+class RoleCodecTest {
+
+    private final RoleCodec codec = new RoleCodec();
+
+    @Test
+    void binaryRoundTrip() {
+        Role role = sampleRole();
+
+        Role decoded = decode(encode(role));
+
+        assertEquals(role, decoded);
+        assertFalse(decoded.hasChanges(), "decoded role must not carry pending changes");
+    }
+
+    @Test
+    void encodedFieldTypes() {
+        BsonDocument doc = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(doc), sampleRole(), EncoderContext.builder().build());
+
+        assertEquals(21, doc.size());
+        assertEquals(new BsonInt64(7L), doc.get("_id"));
+        assertEquals(new BsonInt64(3L), doc.get("user_id"));
+        assertEquals(new BsonInt32(20), doc.get("level"));
+        assertEquals(new BsonInt64(5_000L), doc.get("gold"));
+        assertEquals(new BsonDouble(1.5), doc.get("x"));
+    }
+
+    @Test
+    void nullFieldsRoundTrip() {
+        Role role = sampleRole();
+        role.setName(null);
+        role.setLastLoginTime(null);
+        role.setX(null);
+        role.clearChanges();
+
+        BsonDocument doc = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(doc), role, EncoderContext.builder().build());
+        assertEquals(BsonType.NULL, doc.get("name").getBsonType());
+        assertEquals(BsonType.NULL, doc.get("last_login_time").getBsonType());
+
+        Role decoded = codec.decode(new BsonDocumentReader(doc), DecoderContext.builder().build());
+        assertEquals(role, decoded);
+        assertNull(decoded.getX());
+    }
+
+    @Test
+    void legacyDocumentKeepsDefaultsAndSkipsUnknownFields() {
+        BsonDocument legacy = BsonDocument.parse("{_id: {$numberLong: '8'}, name: 'old', level: 3, "
+                + "gold: 12, extra: {nested: [1, 2, {a: 'b'}]}, hp: 80}");
+
+        Role decoded = codec.decode(new BsonDocumentReader(legacy), DecoderContext.builder().build());
+
+        Role defaults = new Role();
+        assertEquals(8L, decoded.getId());
+        assertEquals("old", decoded.getName());
+        assertEquals(3, decoded.getLevel());
+        assertEquals(12L, decoded.getGold());
+        assertEquals(80, decoded.getHp());
+        assertEquals(defaults.getMapId(), decoded.getMapId());
+        assertEquals(defaults.getX(), decoded.getX());
+        assertEquals(defaults.getDiamond(), decoded.getDiamond());
+        assertFalse(decoded.hasChanges());
+    }
+
+    @Test
+    void mixedNumericTypesAreConverted() {
+        // $inc 或其他写入方可能把字段写成 int32 / int64 / double
+        BsonDocument doc = BsonDocument.parse("{_id: 9, gold: 100, exp: 2.0, level: {$numberLong: '4'}, "
+                + "x: 3, y: {$numberLong: '-2'}, z: 0.5}");
+
+        Role decoded = codec.decode(new BsonDocumentReader(doc), DecoderContext.builder().build());
+
+        assertEquals(9L, decoded.getId());
+        assertEquals(100L, decoded.getGold());
+        assertEquals(2L, decoded.getExp());
+        assertEquals(4, decoded.getLevel());
+        assertEquals(3f, decoded.getX());
+        assertEquals(-2f, decoded.getY());
+        assertEquals(0.5f, decoded.getZ());
+    }
+
+    private byte[] encode(Role role) {
+        BasicOutputBuffer output = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            codec.encode(writer, role, EncoderContext.builder().build());
+        }
+        return output.toByteArray();
+    }
+
+    private Role decode(byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return codec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    private static Role sampleRole() {
+        Role role = new Role();
+        role.setId(7L);
+        role.setUserId(3L);
+        role.setName("勇者");
+        role.setLevel(20);
+        role.setProfession(2);
+        role.setExp(12_345L);
+        role.setGold(5_000L);
+        role.setDiamond(42L);
+        role.setHp(90);
+        role.setMaxHp(120);
+        role.setMp(30);
+        role.setMaxMp(60);
+        role.setAttack(15);
+        role.setDefense(8);
+        role.setSpeed(11);
+        role.setLastLoginTime(1_700_000_000_000L);
+        role.setMapId(9);
+        role.setX(1.5f);
+        role.setY(-2.25f);
+        role.setZ(100f);
+        role.setRotation(3.14f);
+        role.clearChanges();
+        return role;
+    }
+}
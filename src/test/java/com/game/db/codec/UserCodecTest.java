@@ -0,0 +1,60 @@
+package com.game.db.codec;
+
+import com.game.model.User;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * UserCodec 单元测试
+ *
+ * @author Harleysama
+ */
+class UserCodecTest {
+
+    private final UserCodec codec = new UserCodec();
+
+    @Test
+    void binaryRoundTrip() {
+        User user = new User();
+        user.setId(11L);
+        user.setUsername("player");
+        user.setPassword("hash");
+        user.setCreateTime(1_600_000_000_000L);
+        user.setLastLoginTime(1_700_000_000_000L);
+
+        BasicOutputBuffer output = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            codec.encode(writer, user, EncoderContext.builder().build());
+        }
+        User decoded;
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(output.toByteArray()))) {
+            decoded = codec.decode(reader, DecoderContext.builder().build());
+        }
+
+        assertEquals(user, decoded);
+    }
+
+    @Test
+    void missingAndUnknownFields() {
+        BsonDocument doc = BsonDocument.parse("{_id: 12, username: 'u', tags: ['a', 'b'], last_login_time: null}");
+
+        User decoded = codec.decode(new BsonDocumentReader(doc), DecoderContext.builder().build());
+
+        assertEquals(12L, decoded.getId());
+        assertEquals("u", decoded.getUsername());
+        assertNull(decoded.getPassword());
+        assertNull(decoded.getCreateTime());
+        assertNull(decoded.getLastLoginTime());
+    }
+}
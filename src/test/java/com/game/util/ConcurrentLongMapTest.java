@@ -0,0 +1,206 @@
+package com.game.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ConcurrentLongMap 单元测试
+ *
+ * @author Harleysama
+ */
+class ConcurrentLongMapTest {
+
+    @Test
+    void putGetRemove() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(-1L, "b"));
+        assertNull(map.put(Long.MAX_VALUE, "c"));
+        assertEquals("a", map.get(1L));
+        assertEquals("b", map.get(-1L));
+        assertEquals("c", map.get(Long.MAX_VALUE));
+        assertNull(map.get(2L));
+        assertEquals(3, map.size());
+
+        assertEquals("a", map.put(1L, "a2"));
+        assertEquals("a2", map.get(1L));
+        assertEquals(3, map.size());
+
+        assertEquals("a2", map.remove(1L));
+        assertNull(map.remove(1L));
+        assertNull(map.get(1L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void nullValueRejected() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+        assertThrows(NullPointerException.class, () -> map.putIfAbsent(0L, null));
+    }
+
+    @Test
+    void zeroKey() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        assertNull(map.get(0L));
+        assertNull(map.putIfAbsent(0L, "a"));
+        assertEquals("a", map.putIfAbsent(0L, "b"));
+        assertEquals("a", map.get(0L));
+        assertEquals(1, map.size());
+
+        assertEquals("a", map.put(0L, "c"));
+        assertFalse(map.remove(0L, "a"));
+        assertTrue(map.remove(0L, map.get(0L)));
+        assertNull(map.get(0L));
+        assertEquals(0, map.size());
+
+        map.put(0L, "d");
+        assertEquals("d", map.remove(0L));
+        assertNull(map.remove(0L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void conditionalRemoveComparesByReference() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        String value = new String("v");
+        map.put(42L, value);
+
+        assertFalse(map.remove(42L, "other"));
+        assertFalse(map.remove(42L, new String("v")), "equal but different instance must not remove");
+        assertFalse(map.remove(42L, null));
+        assertFalse(map.remove(43L, value));
+        assertSame(value, map.get(42L));
+
+        assertTrue(map.remove(42L, value));
+        assertNull(map.get(42L));
+        assertFalse(map.remove(42L, value));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void tombstoneReusedBySameKey() {
+        ConcurrentLongMap<Integer> map = new ConcurrentLongMap<>(16, 1);
+        int capacity = map.capacity();
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(map.putIfAbsent(7L, i));
+            assertEquals(i, map.remove(7L));
+        }
+        assertEquals(capacity, map.capacity(), "re-inserting the same key must reuse its tombstone");
+        assertEquals(0, map.size());
+
+        // 墓碑视为不存在
+        assertNull(map.get(7L));
+        assertNull(map.putIfAbsent(7L, 1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void tombstonesClearedOnRehash() {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(16, 1);
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+            map.remove(key);
+        }
+        int capacity = map.capacity();
+        for (long key = 1_001; key <= 200_000; key++) {
+            map.put(key, key);
+            map.remove(key);
+        }
+        assertEquals(capacity, map.capacity(), "churn of distinct keys must not grow the table");
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void rehashKeepsAllEntries() {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(16, 4);
+        int initialCapacity = map.capacity();
+        int count = 50_000;
+        for (long key = 1; key <= count; key++) {
+            assertNull(map.put(key * 31, key));
+        }
+        assertTrue(map.capacity() > initialCapacity);
+        assertEquals(count, map.size());
+        for (long key = 1; key <= count; key++) {
+            assertEquals(key, map.get(key * 31));
+        }
+
+        for (long key = 1; key <= count; key += 2) {
+            assertEquals(key, map.remove(key * 31));
+        }
+        for (long key = count + 1; key <= count * 2L; key++) {
+            map.put(key * 31, key);
+        }
+        assertEquals(count / 2 + count, map.size());
+        for (long key = 1; key <= count * 2L; key++) {
+            Long expected = key <= count && (key & 1) == 1 ? null : key;
+            assertEquals(expected, map.get(key * 31));
+        }
+    }
+
+    @Test
+    void concurrentWritersAndReaders() throws Exception {
+        ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(16, 8);
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long key = base; key < base + perThread; key++) {
+                        map.put(key, key);
+                        if ((key & 3) == 0) {
+                            map.remove(key, map.get(key));
+                        }
+                    }
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long key = base; key < base + perThread; key++) {
+                        Long value = map.get(key);
+                        if (value != null && value != key) {
+                            throw new AssertionError("key " + key + " mapped to " + value);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expected = 0;
+        for (long key = 1; key <= (long) threads * perThread; key++) {
+            if ((key & 3) == 0) {
+                assertNull(map.get(key));
+            } else {
+                assertEquals(key, map.get(key));
+                expected++;
+            }
+        }
+        assertEquals(expected, map.size());
+    }
+}